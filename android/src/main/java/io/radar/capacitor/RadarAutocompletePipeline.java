@@ -0,0 +1,282 @@
+package io.radar.capacitor;
+
+import android.location.Location;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import io.radar.sdk.Radar;
+import io.radar.sdk.model.RadarAddress;
+
+/**
+ * Debounced autocomplete sessions. Within a session only the latest query resolves: a query that
+ * is still debouncing or in flight is rejected with "superseded" when a newer one arrives, and its
+ * late response is only used to fill the cache. Queries that extend a cached query whose result
+ * set was complete (fewer results than the limit) are answered locally by filtering. A session is
+ * forgotten once its latest query settles, so apps that use a new session id per search don't
+ * accumulate them.
+ */
+final class RadarAutocompletePipeline {
+
+    static final class Request {
+        final String query;
+        final Location near;
+        final String[] layers;
+        final int limit;
+        final String country;
+        final boolean expandUnits;
+        final boolean mailable;
+
+        Request(String query, Location near, String[] layers, int limit, String country, boolean expandUnits,
+                boolean mailable) {
+            this.query = query;
+            this.near = near;
+            this.layers = layers;
+            this.limit = limit;
+            this.country = country;
+            this.expandUnits = expandUnits;
+            this.mailable = mailable;
+        }
+
+        String paramsKey() {
+            return RadarGeo.geohash(near.getLatitude(), near.getLongitude(), 6) + "|" + RadarGeocodeCache.join(layers)
+                + "|" + limit + "|" + country + "|" + expandUnits + "|" + mailable;
+        }
+
+        String normalizedQuery() {
+            return query.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final class Session {
+        final String id;
+        PluginCall pendingCall;
+        Runnable pendingRunnable;
+        PluginCall inFlightCall;
+        long generation = 0;
+
+        Session(String id) {
+            this.id = id;
+        }
+    }
+
+    private static final class CacheEntry {
+        final JSONArray addresses;
+        final boolean complete;
+
+        CacheEntry(JSONArray addresses, boolean complete) {
+            this.addresses = addresses;
+            this.complete = complete;
+        }
+    }
+
+    private static final int MAX_CACHE_ENTRIES = 50;
+    private static final String SUPERSEDED = "superseded";
+
+    private final Handler handler;
+    private final RadarSerializer serializer;
+    private final RadarPluginMetrics metrics;
+    private final Map<String, Session> sessions = new HashMap<>();
+    private final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            return size() > MAX_CACHE_ENTRIES;
+        }
+    };
+
+    RadarAutocompletePipeline(Handler handler, RadarSerializer serializer, RadarPluginMetrics metrics) {
+        this.handler = handler;
+        this.serializer = serializer;
+        this.metrics = metrics;
+    }
+
+    synchronized void submit(String sessionId, final PluginCall call, final Request request, long debounceMs) {
+        final long receivedAt = SystemClock.elapsedRealtime();
+        final Session session = sessionFor(sessionId);
+        supersede(session);
+
+        final String paramsKey = request.paramsKey();
+        final String query = request.normalizedQuery();
+        CacheEntry exact = cache.get(paramsKey + "|" + query);
+        if (exact != null) {
+            resolve(call, exact.addresses, "cache", receivedAt, receivedAt, receivedAt);
+            release(session);
+            return;
+        }
+        JSONArray filtered = filterPrefix(paramsKey, query);
+        if (filtered != null) {
+            resolve(call, filtered, "prefix", receivedAt, receivedAt, receivedAt);
+            release(session);
+            return;
+        }
+
+        final long generation = ++session.generation;
+        session.pendingCall = call;
+        session.pendingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                send(session, generation, call, request, paramsKey, query, receivedAt);
+            }
+        };
+        handler.postDelayed(session.pendingRunnable, Math.max(0, debounceMs));
+    }
+
+    synchronized void cancel(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session != null) {
+            supersede(session);
+        }
+    }
+
+    private synchronized void send(final Session session, final long generation, final PluginCall call,
+            final Request request, final String paramsKey, final String query, final long receivedAt) {
+        if (session.generation != generation) {
+            return;
+        }
+        session.pendingCall = null;
+        session.pendingRunnable = null;
+        session.inFlightCall = call;
+
+        metrics.invoked(call);
+        final long sentAt = SystemClock.elapsedRealtime();
+        Radar.autocomplete(request.query, request.near, request.layers, request.limit, request.country,
+                request.expandUnits, request.mailable, new Radar.RadarGeocodeCallback() {
+                    @Override
+                    public void onComplete(@NotNull final Radar.RadarStatus status,
+                            @Nullable final RadarAddress[] addresses) {
+                        metrics.callback(call);
+                        serializer.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                onResponse(session, generation, call, request, paramsKey, query, status, addresses,
+                                    receivedAt, sentAt);
+                            }
+                        });
+                    }
+                });
+    }
+
+    private synchronized void onResponse(Session session, long generation, PluginCall call, Request request,
+            String paramsKey, String query, Radar.RadarStatus status, @Nullable RadarAddress[] addresses,
+            long receivedAt, long sentAt) {
+        JSONArray addressesJson = null;
+        if (status == Radar.RadarStatus.SUCCESS && addresses != null) {
+            addressesJson = RadarAddress.toJson(addresses);
+            if (addressesJson != null) {
+                cache.put(paramsKey + "|" + query, new CacheEntry(addressesJson, addresses.length < request.limit));
+            }
+        }
+
+        if (session.generation != generation) {
+            return;
+        }
+        session.inFlightCall = null;
+        release(session);
+
+        if (addressesJson != null) {
+            resolve(call, addressesJson, "network", receivedAt, sentAt, SystemClock.elapsedRealtime());
+        } else {
+            metrics.reject(call, status.toString());
+        }
+    }
+
+    // forgets a session with nothing debouncing or in flight; its next query starts a new one
+    private void release(Session session) {
+        if (session.pendingCall == null && session.inFlightCall == null && sessions.get(session.id) == session) {
+            sessions.remove(session.id);
+        }
+    }
+
+    private void supersede(Session session) {
+        session.generation++;
+        if (session.pendingRunnable != null) {
+            handler.removeCallbacks(session.pendingRunnable);
+            session.pendingRunnable = null;
+        }
+        if (session.pendingCall != null) {
+            metrics.reject(session.pendingCall, SUPERSEDED, SUPERSEDED);
+            session.pendingCall = null;
+        }
+        if (session.inFlightCall != null) {
+            metrics.reject(session.inFlightCall, SUPERSEDED, SUPERSEDED);
+            session.inFlightCall = null;
+        }
+    }
+
+    private JSONArray filterPrefix(String paramsKey, String query) {
+        CacheEntry best = null;
+        int bestLength = -1;
+        String prefix = paramsKey + "|";
+        for (Map.Entry<String, CacheEntry> entry : cache.entrySet()) {
+            String key = entry.getKey();
+            if (!entry.getValue().complete || !key.startsWith(prefix)) {
+                continue;
+            }
+            String cachedQuery = key.substring(prefix.length());
+            if (!cachedQuery.isEmpty() && query.startsWith(cachedQuery) && cachedQuery.length() > bestLength) {
+                best = entry.getValue();
+                bestLength = cachedQuery.length();
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+
+        String[] tokens = query.split("\\s+");
+        JSONArray filtered = new JSONArray();
+        for (int i = 0; i < best.addresses.length(); i++) {
+            JSONObject address = best.addresses.optJSONObject(i);
+            if (address != null && matches(address, tokens)) {
+                filtered.put(address);
+            }
+        }
+        return filtered;
+    }
+
+    private static boolean matches(JSONObject address, String[] tokens) {
+        String haystack = (address.optString("formattedAddress") + " " + address.optString("addressLabel") + " "
+            + address.optString("placeLabel")).toLowerCase(Locale.ROOT);
+        for (String token : tokens) {
+            if (!token.isEmpty() && !haystack.contains(token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resolve(PluginCall call, JSONArray addresses, String source, long receivedAt, long sentAt,
+            long completedAt) {
+        JSObject timing = new JSObject();
+        timing.put("source", source);
+        timing.put("debounceMs", sentAt - receivedAt);
+        timing.put("networkMs", completedAt - sentAt);
+        timing.put("totalMs", SystemClock.elapsedRealtime() - receivedAt);
+
+        JSObject ret = new JSObject();
+        ret.put("status", Radar.RadarStatus.SUCCESS.toString());
+        RadarBridgeEncoder.putArray(ret, "addresses", addresses);
+        ret.put("timing", timing);
+        metrics.resolve(call, ret);
+    }
+
+    private Session sessionFor(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            session = new Session(sessionId);
+            sessions.put(sessionId, session);
+        }
+        return session;
+    }
+}
@@ -0,0 +1,181 @@
+package io.radar.capacitor;
+
+import android.os.SystemClock;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.radar.sdk.Radar;
+import io.radar.sdk.model.RadarAddress;
+
+/**
+ * Runs a batch of geocode or reverse geocode requests with bounded parallelism. Identical inputs
+ * are requested once, each unique result is streamed to the geocodeBatchResult listener with the
+ * indexes it answers, and the call resolves with a summary when every request has completed.
+ */
+final class RadarBatchGeocoder {
+
+    interface Listener {
+        void onResult(JSObject result);
+    }
+
+    interface Request {
+        // identical inputs share a key and are requested once
+        String key();
+
+        String cacheKey();
+
+        Object input();
+
+        void send(Radar.RadarGeocodeCallback callback);
+
+        void cache(JSObject result);
+    }
+
+    private final String batchId;
+    private final PluginCall call;
+    private final Listener listener;
+    private final RadarGeocodeCache cache;
+    private final RadarSerializer serializer;
+    private final RadarPluginMetrics metrics;
+    private final int concurrency;
+    private final long startedAt = SystemClock.elapsedRealtime();
+
+    private final Map<String, List<Integer>> indexes = new LinkedHashMap<>();
+    private final Map<String, Request> requests = new LinkedHashMap<>();
+    private final ArrayDeque<Request> queue = new ArrayDeque<>();
+
+    private int total = 0;
+    private int inFlight = 0;
+    private int completed = 0;
+    private int succeeded = 0;
+    private int failed = 0;
+    private int cached = 0;
+
+    RadarBatchGeocoder(String batchId, PluginCall call, Listener listener, RadarGeocodeCache cache,
+            RadarSerializer serializer, RadarPluginMetrics metrics, int concurrency) {
+        this.batchId = batchId;
+        this.call = call;
+        this.listener = listener;
+        this.cache = cache;
+        this.serializer = serializer;
+        this.metrics = metrics;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    void add(Request request) {
+        int index = total++;
+        String key = request.key();
+        List<Integer> keyIndexes = indexes.get(key);
+        if (keyIndexes == null) {
+            keyIndexes = new ArrayList<>();
+            indexes.put(key, keyIndexes);
+            requests.put(key, request);
+        }
+        keyIndexes.add(index);
+    }
+
+    void start() {
+        for (Request request : requests.values()) {
+            JSObject hit = cache.isEnabled() ? cache.get(request.cacheKey()) : null;
+            if (hit != null) {
+                cached++;
+                onComplete(request, hit, false);
+            } else {
+                queue.add(request);
+            }
+        }
+        synchronized (this) {
+            if (completed == requests.size()) {
+                finish();
+                return;
+            }
+        }
+        next();
+    }
+
+    private void next() {
+        List<Request> toSend = new ArrayList<>();
+        synchronized (this) {
+            while (inFlight < concurrency && !queue.isEmpty()) {
+                inFlight++;
+                toSend.add(queue.poll());
+            }
+        }
+        for (final Request request : toSend) {
+            request.send(new Radar.RadarGeocodeCallback() {
+                @Override
+                public void onComplete(@NotNull final Radar.RadarStatus status,
+                        @Nullable final RadarAddress[] addresses) {
+                    serializer.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            JSObject result = new JSObject();
+                            result.put("status", status.toString());
+                            if (status == Radar.RadarStatus.SUCCESS && addresses != null) {
+                                RadarBridgeEncoder.putArray(result, "addresses", RadarAddress.toJson(addresses));
+                                if (cache.isEnabled()) {
+                                    request.cache(result);
+                                }
+                            }
+                            RadarBatchGeocoder.this.onComplete(request, result, true);
+                            next();
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    private void onComplete(Request request, JSObject result, boolean sent) {
+        boolean done;
+        synchronized (this) {
+            if (sent) {
+                inFlight--;
+            }
+            completed++;
+            if (Radar.RadarStatus.SUCCESS.toString().equals(result.getString("status"))) {
+                succeeded++;
+            } else {
+                failed++;
+            }
+            done = completed == requests.size() && inFlight == 0 && queue.isEmpty();
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("batchId", batchId);
+        ret.put("indexes", new JSArray(indexes.get(request.key())));
+        ret.put("input", request.input());
+        ret.put("status", result.getString("status"));
+        if (result.has("addresses")) {
+            ret.put("addresses", result.opt("addresses"));
+        }
+        listener.onResult(ret);
+
+        if (done && sent) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        JSObject ret = new JSObject();
+        ret.put("batchId", batchId);
+        ret.put("total", total);
+        ret.put("unique", requests.size());
+        ret.put("succeeded", succeeded);
+        ret.put("failed", failed);
+        ret.put("cached", cached);
+        ret.put("durationMs", SystemClock.elapsedRealtime() - startedAt);
+        metrics.resolve(call, ret);
+    }
+}
@@ -0,0 +1,84 @@
+package io.radar.capacitor;
+
+import android.location.Location;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import io.radar.sdk.Radar;
+import io.radar.sdk.model.RadarEvent;
+import io.radar.sdk.model.RadarUser;
+
+/**
+ * Writes SDK models into bridge payloads. The tree produced by the model's own toJson() is adopted
+ * as-is instead of being copied key by key into a JSObject/JSArray, so each payload is built once.
+ * The serialized output is identical to jsObjectForJSONObject/jsArrayForJSONArray.
+ */
+final class RadarBridgeEncoder {
+
+    private RadarBridgeEncoder() {
+    }
+
+    static JSObject putObject(JSObject payload, String key, JSONObject value) {
+        if (value != null) {
+            payload.put(key, value);
+        }
+        return payload;
+    }
+
+    static JSObject putArray(JSObject payload, String key, JSONArray value) {
+        if (value == null) {
+            return payload;
+        }
+
+        // jsArrayForJSONArray drops the whole array if any element is not an object
+        for (int i = 0; i < value.length(); i++) {
+            if (!(value.opt(i) instanceof JSONObject)) {
+                return payload;
+            }
+        }
+        payload.put(key, value);
+        return payload;
+    }
+
+    static JSObject putLocation(JSObject payload, String key, Location location) {
+        if (location == null) {
+            return payload;
+        }
+        RadarSerializer.assertNotMainThread("location");
+        boolean traced = RadarTrace.begin("Radar.encodeLocation");
+        try {
+            return putObject(payload, key, Radar.jsonForLocation(location));
+        } finally {
+            RadarTrace.end(traced);
+        }
+    }
+
+    static JSObject putUser(JSObject payload, String key, RadarUser user) {
+        if (user == null) {
+            return payload;
+        }
+        RadarSerializer.assertNotMainThread("user");
+        boolean traced = RadarTrace.begin("Radar.encodeUser");
+        try {
+            return putObject(payload, key, user.toJson());
+        } finally {
+            RadarTrace.end(traced);
+        }
+    }
+
+    static JSObject putEvents(JSObject payload, String key, RadarEvent[] events) {
+        if (events == null) {
+            return payload;
+        }
+        RadarSerializer.assertNotMainThread("events");
+        boolean traced = RadarTrace.begin("Radar.encodeEvents");
+        try {
+            return putArray(payload, key, RadarEvent.toJson(events));
+        } finally {
+            RadarTrace.end(traced);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.radar.capacitor;
+
+import android.location.Location;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Stale-while-revalidate cache for getContext keyed by a geohash of the coordinates. Fresh entries
+ * answer immediately; entries past the TTL but within maxStale also answer immediately and are
+ * refreshed once in the background. Calls without coordinates are keyed on the last client
+ * location reported by the SDK when it is no older than the TTL.
+ */
+final class RadarContextCache {
+
+    private final RadarResponseCache cache = new RadarResponseCache("context", 100);
+    private final Set<String> refreshing = new HashSet<>();
+
+    private volatile boolean enabled = false;
+    private long ttlMs = 60 * 1000L;
+    private long maxStaleMs = 10 * 60 * 1000L;
+    private int precision = 7;
+    private long refreshes = 0;
+
+    private Location lastLocation;
+    private long lastLocationAt = 0;
+
+    synchronized void configure(boolean enabled, int maxEntries, long ttlMs, long maxStaleMs, int precision) {
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.maxStaleMs = maxStaleMs;
+        this.precision = precision;
+        cache.configure(maxEntries, null);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    synchronized void onLocation(Location location) {
+        lastLocation = location;
+        lastLocationAt = SystemClock.elapsedRealtime();
+    }
+
+    // null when the call has no coordinates and there is no recent client location to key on
+    synchronized Location currentLocation() {
+        if (lastLocation == null || SystemClock.elapsedRealtime() - lastLocationAt > ttlMs) {
+            return null;
+        }
+        return lastLocation;
+    }
+
+    synchronized String key(double latitude, double longitude) {
+        return RadarGeo.geohash(latitude, longitude, precision);
+    }
+
+    RadarResponseCache.Lookup lookup(String key) {
+        return cache.lookup(key);
+    }
+
+    synchronized void put(String key, JSObject value) {
+        cache.put(key, value, ttlMs, maxStaleMs);
+    }
+
+    // true if the caller should start a refresh for key
+    synchronized boolean beginRefresh(String key) {
+        if (!refreshing.add(key)) {
+            return false;
+        }
+        refreshes++;
+        return true;
+    }
+
+    synchronized void endRefresh(String key) {
+        refreshing.remove(key);
+    }
+
+    synchronized void clear() {
+        cache.clear();
+    }
+
+    synchronized JSObject getStats() {
+        JSObject ret = cache.getStats();
+        ret.put("enabled", enabled);
+        ret.put("precision", precision);
+        ret.put("refreshes", refreshes);
+        return ret;
+    }
+
+    synchronized void resetStats() {
+        cache.resetStats();
+        refreshes = 0;
+    }
+}
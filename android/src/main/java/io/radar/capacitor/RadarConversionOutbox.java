@@ -0,0 +1,363 @@
+package io.radar.capacitor;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import io.radar.sdk.Radar;
+import io.radar.sdk.model.RadarEvent;
+
+/**
+ * Durable outbox for logConversion. Conversions are appended to an NDJSON file in the app's files
+ * directory before being sent, then drained in batches with exponential backoff on retryable
+ * failures. The file is an append-only log that is compacted after each batch by writing the
+ * remaining entries to a temporary file and renaming it over the log, and the outbox is
+ * bounded by maxEntries with oldest-first eviction. All file and queue work runs on a dedicated
+ * thread. The options are saved so the plugin can restore an enabled outbox on the next launch.
+ */
+final class RadarConversionOutbox {
+
+    interface Listener {
+        void onConversionSettled(JSONObject record, Radar.RadarStatus status, @Nullable RadarEvent event);
+    }
+
+    private static final String TAG = "RadarConversionOutbox";
+    private static final String FILE_NAME = "RadarConversionOutbox.ndjson";
+    private static final String PREFS_NAME = "RadarConversionOutbox";
+
+    private final Listener listener;
+    private final RadarPluginMetrics metrics;
+    private final Handler handler;
+    private final File file;
+    private final File tmpFile;
+    private final SharedPreferences prefs;
+    private final ArrayDeque<JSONObject> pending = new ArrayDeque<>();
+    private final List<JSONObject> inFlight = new ArrayList<>();
+    private final Map<String, PluginCall> waitingCalls = new HashMap<>();
+
+    private volatile boolean enabled = false;
+    private int maxEntries = 500;
+    private int batchSize = 10;
+    private long initialBackoffMs = 5000;
+    private long maxBackoffMs = 300000;
+
+    private long backoffMs = 0;
+    private boolean retryFailed = false;
+    private boolean drainScheduled = false;
+    private long delivered = 0;
+    private long failed = 0;
+    private long evicted = 0;
+
+    private final Runnable drainRunnable = new Runnable() {
+        @Override
+        public void run() {
+            drainScheduled = false;
+            drain();
+        }
+    };
+
+    RadarConversionOutbox(Context context, Listener listener, RadarPluginMetrics metrics) {
+        this.listener = listener;
+        this.metrics = metrics;
+        this.file = new File(context.getFilesDir(), FILE_NAME);
+        this.tmpFile = new File(context.getFilesDir(), FILE_NAME + ".tmp");
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+
+        HandlerThread thread = new HandlerThread(TAG);
+        thread.start();
+        this.handler = new Handler(thread.getLooper());
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    // true when the last configure() before the app was killed enabled the outbox
+    static boolean isPersistedEnabled(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getBoolean("enabled", false);
+    }
+
+    // re-applies the options saved by the last configure()
+    void restore() {
+        configure(prefs.getBoolean("enabled", false), prefs.getInt("maxEntries", 500), prefs.getInt("batchSize", 10),
+            prefs.getLong("initialBackoff", 5000), prefs.getLong("maxBackoff", 300000));
+    }
+
+    void configure(final boolean enabled, final int maxEntries, final int batchSize,
+            final long initialBackoffMs, final long maxBackoffMs) {
+        // set here rather than on the handler so a logConversion right after this call sees it
+        this.enabled = enabled;
+        prefs.edit()
+            .putBoolean("enabled", enabled)
+            .putInt("maxEntries", maxEntries)
+            .putInt("batchSize", batchSize)
+            .putLong("initialBackoff", initialBackoffMs)
+            .putLong("maxBackoff", maxBackoffMs)
+            .apply();
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                RadarConversionOutbox.this.maxEntries = Math.max(1, maxEntries);
+                RadarConversionOutbox.this.batchSize = Math.max(1, batchSize);
+                RadarConversionOutbox.this.initialBackoffMs = Math.max(0, initialBackoffMs);
+                RadarConversionOutbox.this.maxBackoffMs = Math.max(initialBackoffMs, maxBackoffMs);
+                if (enabled) {
+                    scheduleDrain(0);
+                }
+            }
+        });
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void enqueue(final String name, final double revenue, @Nullable final JSONObject metadata, final PluginCall call) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                JSONObject record = new JSONObject();
+                try {
+                    record.put("id", UUID.randomUUID().toString());
+                    record.put("name", name);
+                    if (revenue > 0) {
+                        record.put("revenue", revenue);
+                    }
+                    if (metadata != null) {
+                        record.put("metadata", metadata);
+                    }
+                    record.put("createdAt", System.currentTimeMillis());
+                } catch (JSONException e) {
+                    metrics.reject(call, "invalid conversion");
+                    return;
+                }
+
+                boolean evictedAny = false;
+                while (pending.size() + inFlight.size() >= maxEntries && !pending.isEmpty()) {
+                    JSONObject oldest = pending.pollFirst();
+                    evicted++;
+                    evictedAny = true;
+                    PluginCall evictedCall = waitingCalls.remove(oldest.optString("id"));
+                    if (evictedCall != null) {
+                        metrics.reject(evictedCall, "conversion evicted from outbox");
+                    }
+                }
+
+                pending.addLast(record);
+                if (backoffMs > 0) {
+                    // the network is known to be failing, don't hold the call until the next retry
+                    JSObject ret = new JSObject();
+                    ret.put("status", "QUEUED");
+                    metrics.resolve(call, ret);
+                } else {
+                    waitingCalls.put(record.optString("id"), call);
+                }
+                if (evictedAny || !append(record)) {
+                    persist();
+                }
+                scheduleDrain(backoffMs);
+            }
+        });
+    }
+
+    void getStatus(final PluginCall call) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                JSObject ret = new JSObject();
+                ret.put("enabled", enabled);
+                ret.put("pending", pending.size() + inFlight.size());
+                ret.put("delivered", delivered);
+                ret.put("failed", failed);
+                ret.put("evicted", evicted);
+                ret.put("backoff", backoffMs);
+                metrics.resolve(call, ret);
+            }
+        });
+    }
+
+    private void scheduleDrain(long delayMs) {
+        if (drainScheduled || !inFlight.isEmpty()) {
+            return;
+        }
+        drainScheduled = true;
+        handler.postDelayed(drainRunnable, delayMs);
+    }
+
+    private void drain() {
+        if (!enabled || !inFlight.isEmpty() || pending.isEmpty()) {
+            return;
+        }
+
+        retryFailed = false;
+        while (inFlight.size() < batchSize && !pending.isEmpty()) {
+            inFlight.add(pending.pollFirst());
+        }
+        for (JSONObject record : new ArrayList<>(inFlight)) {
+            send(record);
+        }
+    }
+
+    private void send(final JSONObject record) {
+        Radar.RadarLogConversionCallback callback = new Radar.RadarLogConversionCallback() {
+            @Override
+            public void onComplete(@NonNull final Radar.RadarStatus status, @Nullable final RadarEvent event) {
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onSent(record, status, event);
+                    }
+                });
+            }
+        };
+
+        String name = record.optString("name");
+        double revenue = record.optDouble("revenue", 0);
+        JSONObject metadata = record.optJSONObject("metadata");
+        if (revenue > 0) {
+            Radar.logConversion(name, revenue, metadata, callback);
+        } else {
+            Radar.logConversion(name, metadata, callback);
+        }
+    }
+
+    private void onSent(JSONObject record, Radar.RadarStatus status, @Nullable RadarEvent event) {
+        inFlight.remove(record);
+        PluginCall call = waitingCalls.remove(record.optString("id"));
+
+        if (isRetryable(status)) {
+            retryFailed = true;
+            pending.addFirst(record);
+            if (call != null) {
+                JSObject ret = new JSObject();
+                ret.put("status", "QUEUED");
+                metrics.resolve(call, ret);
+            }
+        } else {
+            if (status == Radar.RadarStatus.SUCCESS) {
+                delivered++;
+            } else {
+                failed++;
+            }
+            if (call != null) {
+                if (status == Radar.RadarStatus.SUCCESS) {
+                    JSObject ret = new JSObject();
+                    ret.put("status", status.toString());
+                    if (event != null) {
+                        ret.put("event", event.toJson());
+                    }
+                    metrics.resolve(call, ret);
+                } else {
+                    metrics.reject(call, status.toString());
+                }
+            } else {
+                listener.onConversionSettled(record, status, event);
+            }
+        }
+
+        if (!inFlight.isEmpty()) {
+            return;
+        }
+        persist();
+        if (retryFailed) {
+            backoffMs = backoffMs == 0 ? initialBackoffMs : Math.min(maxBackoffMs, backoffMs * 2);
+        } else {
+            backoffMs = 0;
+        }
+        if (!pending.isEmpty()) {
+            scheduleDrain(backoffMs);
+        }
+    }
+
+    private static boolean isRetryable(Radar.RadarStatus status) {
+        return status == Radar.RadarStatus.ERROR_NETWORK
+            || status == Radar.RadarStatus.ERROR_SERVER
+            || status == Radar.RadarStatus.ERROR_RATE_LIMIT
+            || status == Radar.RadarStatus.ERROR_PUBLISHABLE_KEY;
+    }
+
+    private void load() {
+        // left over from a compaction interrupted before the rename, the log itself is intact
+        if (tmpFile.exists() && !tmpFile.delete()) {
+            Log.w(TAG, "Could not delete " + tmpFile.getName());
+        }
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    pending.addLast(new JSONObject(line));
+                } catch (JSONException e) {
+                    Log.w(TAG, "Skipping corrupt outbox entry");
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Exception reading outbox", e);
+        }
+    }
+
+    private boolean append(JSONObject record) {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write((record.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Exception appending to outbox", e);
+            return false;
+        }
+    }
+
+    // rewrites the log with only the unsettled entries; the rename keeps the old log until the new one is complete
+    private void persist() {
+        StringBuilder sb = new StringBuilder();
+        for (JSONObject record : inFlight) {
+            sb.append(record.toString()).append('\n');
+        }
+        for (JSONObject record : pending) {
+            sb.append(record.toString()).append('\n');
+        }
+        try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "Exception writing outbox", e);
+            tmpFile.delete();
+            return;
+        }
+        if (!tmpFile.renameTo(file)) {
+            Log.e(TAG, "Could not replace outbox");
+            tmpFile.delete();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.radar.capacitor;
+
+import android.os.Handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.radar.sdk.model.RadarEvent;
+import io.radar.sdk.model.RadarUser;
+
+/**
+ * Collects events received from the SDK and flushes them as one batch when the flush interval
+ * elapses or maxEvents is reached. Only the most recent user is kept, and nothing is serialized
+ * until the batch is flushed.
+ */
+final class RadarEventsBatcher {
+
+    interface Listener {
+        void onEventsFlushed(RadarEvent[] events, RadarUser user);
+    }
+
+    private final Listener listener;
+    private final Handler handler;
+    private final List<RadarEvent> events = new ArrayList<>();
+
+    private RadarUser user;
+    private boolean enabled = false;
+    private long flushIntervalMs = 1000;
+    private int maxEvents = 50;
+    private boolean flushScheduled = false;
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    RadarEventsBatcher(Listener listener, Handler handler) {
+        this.listener = listener;
+        this.handler = handler;
+    }
+
+    void configure(boolean enabled, long flushIntervalMs, int maxEvents) {
+        synchronized (this) {
+            this.enabled = enabled;
+            this.flushIntervalMs = Math.max(0, flushIntervalMs);
+            this.maxEvents = Math.max(1, maxEvents);
+        }
+        if (!enabled) {
+            flush();
+        }
+    }
+
+    synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    void add(RadarEvent[] newEvents, RadarUser newUser) {
+        boolean flushNow;
+        synchronized (this) {
+            Collections.addAll(events, newEvents);
+            if (newUser != null) {
+                user = newUser;
+            }
+            flushNow = events.size() >= maxEvents;
+            if (!flushNow && !flushScheduled) {
+                flushScheduled = true;
+                handler.postDelayed(flushRunnable, flushIntervalMs);
+            }
+        }
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    void flush() {
+        RadarEvent[] flushedEvents;
+        RadarUser flushedUser;
+        synchronized (this) {
+            if (flushScheduled) {
+                handler.removeCallbacks(flushRunnable);
+                flushScheduled = false;
+            }
+            if (events.isEmpty()) {
+                return;
+            }
+            flushedEvents = events.toArray(new RadarEvent[0]);
+            flushedUser = user;
+            events.clear();
+            user = null;
+        }
+        listener.onEventsFlushed(flushedEvents, flushedUser);
+    }
+}
@@ -0,0 +1,88 @@
+package io.radar.capacitor;
+
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+
+/**
+ * Response cache for geocode, reverseGeocode and ipGeocode. Reverse geocode keys use a geohash of
+ * the coordinates so that nearby points share a result.
+ */
+final class RadarGeocodeCache {
+
+    static final String IP_GEOCODE_KEY = "ipGeocode";
+
+    private final RadarResponseCache cache = new RadarResponseCache("geocode", 200);
+
+    private volatile boolean enabled = false;
+    private long geocodeTtlMs = 24 * 60 * 60 * 1000L;
+    private long reverseGeocodeTtlMs = 60 * 60 * 1000L;
+    private long ipGeocodeTtlMs = 5 * 60 * 1000L;
+    private int precision = 7;
+
+    synchronized void configure(boolean enabled, int maxEntries, long geocodeTtlMs, long reverseGeocodeTtlMs,
+            long ipGeocodeTtlMs, int precision, File diskDir) {
+        this.enabled = enabled;
+        this.geocodeTtlMs = geocodeTtlMs;
+        this.reverseGeocodeTtlMs = reverseGeocodeTtlMs;
+        this.ipGeocodeTtlMs = ipGeocodeTtlMs;
+        this.precision = precision;
+        cache.configure(maxEntries, diskDir);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    String geocodeKey(String query, String[] layers, String[] countries) {
+        return "geocode|" + query.trim().toLowerCase() + "|" + join(layers) + "|" + join(countries);
+    }
+
+    synchronized String reverseGeocodeKey(double latitude, double longitude, String[] layers) {
+        return "reverseGeocode|" + RadarGeo.geohash(latitude, longitude, precision) + "|" + join(layers);
+    }
+
+    JSObject get(String key) {
+        return cache.get(key);
+    }
+
+    synchronized void putGeocode(String key, JSObject value) {
+        cache.put(key, value, geocodeTtlMs);
+    }
+
+    synchronized void putReverseGeocode(String key, JSObject value) {
+        cache.put(key, value, reverseGeocodeTtlMs);
+    }
+
+    synchronized void putIpGeocode(JSObject value) {
+        cache.put(IP_GEOCODE_KEY, value, ipGeocodeTtlMs);
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+    JSObject getStats() {
+        JSObject ret = cache.getStats();
+        ret.put("enabled", enabled);
+        return ret;
+    }
+
+    void resetStats() {
+        cache.resetStats();
+    }
+
+    static String join(String[] arr) {
+        if (arr == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < arr.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(arr[i]);
+        }
+        return sb.toString();
+    }
+}
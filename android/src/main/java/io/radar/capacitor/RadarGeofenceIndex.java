@@ -0,0 +1,267 @@
+package io.radar.capacitor;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * On-device store of geofence geometries fetched with searchGeofences({ includeGeometry: true }).
+ * Geometries are flattened into primitive arrays (bounding boxes, circle centres and radii, and
+ * polygon vertices in one shared lat/lng array) so that a containment query is a bounding-box scan
+ * followed by an exact circle or point-in-polygon test, with no allocation per geofence. Polygon and
+ * isochrone geofences that arrive without a usable ring are skipped and counted rather than
+ * approximated by their radius.
+ */
+final class RadarGeofenceIndex {
+
+    private static final byte CIRCLE = 0;
+    private static final byte POLYGON = 1;
+    private static final double METERS_PER_DEGREE = 111320;
+
+    private static final class Shape {
+        final JSObject summary;
+        final byte type;
+        final double centerLatitude;
+        final double centerLongitude;
+        final double radius;
+        // lat, lng pairs of the outer ring
+        final double[] vertices;
+
+        Shape(JSObject summary, byte type, double centerLatitude, double centerLongitude, double radius,
+                double[] vertices) {
+            this.summary = summary;
+            this.type = type;
+            this.centerLatitude = centerLatitude;
+            this.centerLongitude = centerLongitude;
+            this.radius = radius;
+            this.vertices = vertices;
+        }
+    }
+
+    private final LinkedHashMap<String, Shape> shapes = new LinkedHashMap<>();
+
+    private volatile boolean enabled = false;
+    private int maxGeofences = 1000;
+    private boolean dirty = false;
+    private long skipped = 0;
+
+    private JSObject[] summaries = new JSObject[0];
+    private byte[] types = new byte[0];
+    private double[] minLatitudes = new double[0];
+    private double[] maxLatitudes = new double[0];
+    private double[] minLongitudes = new double[0];
+    private double[] maxLongitudes = new double[0];
+    private double[] centerLatitudes = new double[0];
+    private double[] centerLongitudes = new double[0];
+    private double[] radii = new double[0];
+    private int[] vertexStarts = new int[0];
+    private int[] vertexEnds = new int[0];
+    private double[] vertices = new double[0];
+
+    synchronized void configure(boolean enabled, int maxGeofences) {
+        this.enabled = enabled;
+        this.maxGeofences = Math.max(1, maxGeofences);
+        trim();
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    synchronized int addAll(JSONArray geofences) {
+        int added = 0;
+        for (int i = 0; geofences != null && i < geofences.length(); i++) {
+            JSONObject geofence = geofences.optJSONObject(i);
+            Shape shape = geofence != null ? shapeFor(geofence) : null;
+            if (shape == null) {
+                skipped++;
+                continue;
+            }
+            String id = geofence.optString("_id");
+            shapes.remove(id);
+            shapes.put(id, shape);
+            added++;
+        }
+        if (added > 0) {
+            trim();
+            dirty = true;
+        }
+        return added;
+    }
+
+    synchronized JSArray query(double latitude, double longitude) {
+        if (dirty) {
+            rebuild();
+        }
+        JSArray ret = new JSArray();
+        for (int i = 0; i < types.length; i++) {
+            if (latitude < minLatitudes[i] || latitude > maxLatitudes[i]
+                    || longitude < minLongitudes[i] || longitude > maxLongitudes[i]) {
+                continue;
+            }
+            boolean inside = types[i] == CIRCLE
+                ? RadarGeo.distance(latitude, longitude, centerLatitudes[i], centerLongitudes[i]) <= radii[i]
+                : containsPoint(vertices, vertexStarts[i], vertexEnds[i], latitude, longitude);
+            if (inside) {
+                ret.put(summaries[i]);
+            }
+        }
+        return ret;
+    }
+
+    synchronized int size() {
+        return shapes.size();
+    }
+
+    // geofences passed to addAll since the last clear() that had no usable geometry
+    synchronized long skipped() {
+        return skipped;
+    }
+
+    synchronized void clear() {
+        shapes.clear();
+        skipped = 0;
+        dirty = true;
+    }
+
+    private void trim() {
+        while (shapes.size() > maxGeofences) {
+            shapes.remove(shapes.keySet().iterator().next());
+            dirty = true;
+        }
+    }
+
+    private void rebuild() {
+        int n = shapes.size();
+        int vertexCount = 0;
+        for (Shape shape : shapes.values()) {
+            if (shape.vertices != null) {
+                vertexCount += shape.vertices.length;
+            }
+        }
+
+        summaries = new JSObject[n];
+        types = new byte[n];
+        minLatitudes = new double[n];
+        maxLatitudes = new double[n];
+        minLongitudes = new double[n];
+        maxLongitudes = new double[n];
+        centerLatitudes = new double[n];
+        centerLongitudes = new double[n];
+        radii = new double[n];
+        vertexStarts = new int[n];
+        vertexEnds = new int[n];
+        vertices = new double[vertexCount];
+
+        int i = 0;
+        int v = 0;
+        for (Shape shape : shapes.values()) {
+            summaries[i] = shape.summary;
+            types[i] = shape.type;
+            centerLatitudes[i] = shape.centerLatitude;
+            centerLongitudes[i] = shape.centerLongitude;
+            radii[i] = shape.radius;
+            if (shape.type == CIRCLE) {
+                double dLat = shape.radius / METERS_PER_DEGREE;
+                double dLng = shape.radius / (METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(shape.centerLatitude))));
+                minLatitudes[i] = shape.centerLatitude - dLat;
+                maxLatitudes[i] = shape.centerLatitude + dLat;
+                minLongitudes[i] = shape.centerLongitude - dLng;
+                maxLongitudes[i] = shape.centerLongitude + dLng;
+            } else {
+                minLatitudes[i] = Double.MAX_VALUE;
+                maxLatitudes[i] = -Double.MAX_VALUE;
+                minLongitudes[i] = Double.MAX_VALUE;
+                maxLongitudes[i] = -Double.MAX_VALUE;
+                vertexStarts[i] = v;
+                for (int j = 0; j < shape.vertices.length; j += 2) {
+                    double lat = shape.vertices[j];
+                    double lng = shape.vertices[j + 1];
+                    minLatitudes[i] = Math.min(minLatitudes[i], lat);
+                    maxLatitudes[i] = Math.max(maxLatitudes[i], lat);
+                    minLongitudes[i] = Math.min(minLongitudes[i], lng);
+                    maxLongitudes[i] = Math.max(maxLongitudes[i], lng);
+                    vertices[v++] = lat;
+                    vertices[v++] = lng;
+                }
+                vertexEnds[i] = v;
+            }
+            i++;
+        }
+        dirty = false;
+    }
+
+    // even-odd ray casting over lat, lng pairs in [start, end)
+    static boolean containsPoint(double[] vertices, int start, int end, double latitude, double longitude) {
+        boolean inside = false;
+        for (int i = start, j = end - 2; i < end; j = i, i += 2) {
+            double latI = vertices[i];
+            double lngI = vertices[i + 1];
+            double latJ = vertices[j];
+            double lngJ = vertices[j + 1];
+            if ((latI > latitude) != (latJ > latitude)
+                    && longitude < (lngJ - lngI) * (latitude - latI) / (latJ - latI) + lngI) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static Shape shapeFor(JSONObject geofence) {
+        JSObject summary = new JSObject();
+        summary.put("_id", geofence.optString("_id"));
+        summary.put("tag", geofence.opt("tag"));
+        summary.put("externalId", geofence.opt("externalId"));
+        summary.put("description", geofence.opt("description"));
+
+        JSONObject center = geofence.optJSONObject("geometryCenter");
+        JSONArray centerCoordinates = center != null ? center.optJSONArray("coordinates") : null;
+        double centerLatitude = centerCoordinates != null ? centerCoordinates.optDouble(1) : Double.NaN;
+        double centerLongitude = centerCoordinates != null ? centerCoordinates.optDouble(0) : Double.NaN;
+
+        double[] ring = ringFor(geofence.optJSONObject("geometry"));
+        if (ring != null) {
+            return new Shape(summary, POLYGON, centerLatitude, centerLongitude, 0, ring);
+        }
+        if (!"circle".equalsIgnoreCase(geofence.optString("type", "circle"))) {
+            // geometryRadius only bounds a polygon, so a circle would report false matches
+            return null;
+        }
+        double radius = geofence.optDouble("geometryRadius");
+        if (!Double.isNaN(centerLatitude) && !Double.isNaN(centerLongitude) && !Double.isNaN(radius)) {
+            return new Shape(summary, CIRCLE, centerLatitude, centerLongitude, radius, null);
+        }
+        return null;
+    }
+
+    // outer ring of a GeoJSON polygon, or a bare ring of [lng, lat] positions
+    private static double[] ringFor(JSONObject geometry) {
+        JSONArray coordinates = geometry != null ? geometry.optJSONArray("coordinates") : null;
+        if (coordinates == null || coordinates.length() == 0) {
+            return null;
+        }
+        JSONArray ring = coordinates.optJSONArray(0);
+        if (ring != null && ring.optJSONArray(0) != null) {
+            coordinates = ring;
+        }
+        if (coordinates.length() < 3) {
+            return null;
+        }
+
+        double[] vertices = new double[coordinates.length() * 2];
+        for (int i = 0; i < coordinates.length(); i++) {
+            JSONArray position = coordinates.optJSONArray(i);
+            if (position == null || position.length() < 2) {
+                return null;
+            }
+            vertices[i * 2] = position.optDouble(1);
+            vertices[i * 2 + 1] = position.optDouble(0);
+        }
+        return vertices;
+    }
+}
@@ -0,0 +1,69 @@
+package io.radar.capacitor;
+
+import com.getcapacitor.JSObject;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram with power-of-two buckets. Recording is a few arithmetic operations and
+ * never allocates; percentiles are reported as the upper bound of the bucket they fall in, capped
+ * at the maximum recorded value.
+ */
+final class RadarHistogram {
+
+    private final long[] buckets = new long[64];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    synchronized void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        // bucket i holds [2^i, 2^(i+1)), with 0 and 1 sharing bucket 0
+        buckets[value <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    synchronized long count() {
+        return count;
+    }
+
+    synchronized long percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(p * count);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                long upper = i >= 62 ? Long.MAX_VALUE : (2L << i) - 1;
+                return Math.min(upper, max);
+            }
+        }
+        return max;
+    }
+
+    synchronized void reset() {
+        Arrays.fill(buckets, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    synchronized JSObject toJson() {
+        JSObject ret = new JSObject();
+        ret.put("count", count);
+        ret.put("mean", count > 0 ? (double) sum / count : 0);
+        ret.put("p50", percentile(0.5));
+        ret.put("p90", percentile(0.9));
+        ret.put("p99", percentile(0.99));
+        ret.put("max", max);
+        return ret;
+    }
+}
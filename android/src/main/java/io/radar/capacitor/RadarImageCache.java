@@ -0,0 +1,395 @@
+package io.radar.capacitor;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Base64;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.getcapacitor.JSObject;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import io.radar.sdk.Radar;
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
+
+/**
+ * Caches images loaded with Radar.loadImage. Each image is downsampled to fit maxWidth x maxHeight
+ * when given, compressed to PNG once and kept in a size-bounded directory under cacheDir, evicting
+ * the least recently used files first by their modification time, which is touched on every read.
+ * Recent results (file paths, or base64 strings for callers that still want inline data) are kept
+ * in a memory LruCache bounded by size. Both tiers expire ttl ms after the image was downloaded;
+ * the download time is part of the file name so reads don't move it. Decoding, scaling and disk I/O
+ * run on a dedicated thread.
+ */
+final class RadarImageCache {
+
+    interface Callback {
+        // value is the file path in file mode, otherwise base64 PNG data
+        void onResult(@Nullable String value, @Nullable String error);
+    }
+
+    private static final String TAG = "RadarImageCache";
+    private static final String DIRECTORY = "radar-images";
+
+    private static final class MemoryEntry {
+        final String value;
+        final long downloadedAt;
+
+        MemoryEntry(String value, long downloadedAt) {
+            this.value = value;
+            this.downloadedAt = downloadedAt;
+        }
+    }
+
+    private final File dir;
+    private final Handler handler;
+    private final LruCache<String, MemoryEntry> memory;
+    // key hash to its file, named <hash>_<downloadedAt>.png; only used on the cache thread
+    private final Map<String, File> files = new HashMap<>();
+    private boolean indexed = false;
+    private long maxDiskBytes = 50L * 1024 * 1024;
+    private volatile long ttlMs = 24L * 60 * 60 * 1000;
+
+    private long memoryHits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long expired = 0;
+
+    RadarImageCache(File cacheDir, int maxMemoryBytes) {
+        this.dir = new File(cacheDir, DIRECTORY);
+        this.memory = new LruCache<String, MemoryEntry>(maxMemoryBytes) {
+            @Override
+            protected int sizeOf(String key, MemoryEntry entry) {
+                return (key.length() + entry.value.length()) * 2;
+            }
+        };
+        HandlerThread thread = new HandlerThread(TAG);
+        thread.start();
+        this.handler = new Handler(thread.getLooper());
+    }
+
+    synchronized void configure(int maxMemoryBytes, long maxDiskBytes, long ttlMs) {
+        memory.resize(maxMemoryBytes);
+        this.maxDiskBytes = maxDiskBytes;
+        this.ttlMs = ttlMs;
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                trim();
+            }
+        });
+    }
+
+    void load(final String url, final boolean fileMode, final int maxWidth, final int maxHeight, final Callback callback) {
+        final String memoryKey = (fileMode ? "file|" : "base64|") + maxWidth + "x" + maxHeight + "|" + url;
+        MemoryEntry cached = memory.get(memoryKey);
+        if (cached != null && isExpired(cached.downloadedAt)) {
+            memory.remove(memoryKey);
+            cached = null;
+        }
+        if (cached != null && (!fileMode || new File(cached.value).isFile())) {
+            synchronized (this) {
+                memoryHits++;
+            }
+            callback.onResult(cached.value, null);
+            return;
+        }
+
+        final String hash = hash(url, maxWidth, maxHeight);
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                index();
+                File file = files.get(hash);
+                if (file != null && (!file.isFile() || isExpired(downloadedAt(file)))) {
+                    if (file.isFile()) {
+                        synchronized (RadarImageCache.this) {
+                            expired++;
+                        }
+                        file.delete();
+                    }
+                    files.remove(hash);
+                    file = null;
+                }
+                if (file != null) {
+                    synchronized (RadarImageCache.this) {
+                        diskHits++;
+                    }
+                    // the modification time is the eviction order
+                    file.setLastModified(System.currentTimeMillis());
+                    deliver(memoryKey, file, fileMode, callback);
+                    return;
+                }
+                synchronized (RadarImageCache.this) {
+                    misses++;
+                }
+                Radar.loadImage(url, new Function1<Bitmap, Unit>() {
+                    @Override
+                    public Unit invoke(final Bitmap bitmap) {
+                        if (bitmap == null) {
+                            callback.onResult(null, "Failed to load image");
+                            return Unit.INSTANCE;
+                        }
+                        handler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                File file = new File(dir, hash + "_" + System.currentTimeMillis() + ".png");
+                                try {
+                                    write(scale(bitmap, maxWidth, maxHeight), file);
+                                } catch (IOException e) {
+                                    Log.e(TAG, "Exception converting image", e);
+                                    callback.onResult(null, "Failed to convert image");
+                                    return;
+                                }
+                                File previous = files.put(hash, file);
+                                if (previous != null && !previous.equals(file)) {
+                                    previous.delete();
+                                }
+                                trim();
+                                deliver(memoryKey, file, fileMode, callback);
+                            }
+                        });
+                        return Unit.INSTANCE;
+                    }
+                });
+            }
+        });
+    }
+
+    void clear() {
+        memory.evictAll();
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                files.clear();
+                File[] dirFiles = dir.listFiles();
+                if (dirFiles != null) {
+                    for (File file : dirFiles) {
+                        file.delete();
+                    }
+                }
+            }
+        });
+    }
+
+    JSObject getStats() {
+        // listed before taking the lock so loads aren't blocked on a large directory
+        long diskBytes = diskBytes();
+        JSObject ret = new JSObject();
+        synchronized (this) {
+            long requests = memoryHits + diskHits + misses;
+            ret.put("memoryHits", memoryHits);
+            ret.put("diskHits", diskHits);
+            ret.put("misses", misses);
+            ret.put("expired", expired);
+            ret.put("hitRate", requests > 0 ? (double) (memoryHits + diskHits) / requests : 0);
+        }
+        ret.put("memoryBytes", memory.size());
+        ret.put("memoryEntries", memory.snapshot().size());
+        ret.put("diskBytes", diskBytes);
+        return ret;
+    }
+
+    synchronized void resetStats() {
+        memoryHits = 0;
+        diskHits = 0;
+        misses = 0;
+        expired = 0;
+    }
+
+    private boolean isExpired(long downloadedAt) {
+        long ttl = ttlMs;
+        return ttl > 0 && System.currentTimeMillis() - downloadedAt >= ttl;
+    }
+
+    // runs on the cache thread; lists the directory once, dropping temporary and unrecognized files
+    private void index() {
+        if (indexed) {
+            return;
+        }
+        indexed = true;
+        File[] dirFiles = dir.listFiles();
+        if (dirFiles == null) {
+            return;
+        }
+        for (File file : dirFiles) {
+            String name = file.getName();
+            int separator = name.indexOf('_');
+            if (!name.endsWith(".png") || separator <= 0 || downloadedAt(file) < 0) {
+                file.delete();
+                continue;
+            }
+            String hash = name.substring(0, separator);
+            File previous = files.get(hash);
+            if (previous == null || downloadedAt(previous) < downloadedAt(file)) {
+                files.put(hash, file);
+                if (previous != null) {
+                    previous.delete();
+                }
+            } else {
+                file.delete();
+            }
+        }
+    }
+
+    // the download time from the file name, or -1
+    private static long downloadedAt(File file) {
+        String name = file.getName();
+        int separator = name.indexOf('_');
+        if (separator < 0 || !name.endsWith(".png")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(separator + 1, name.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // runs on the cache thread
+    private void deliver(String memoryKey, File file, boolean fileMode, Callback callback) {
+        long downloadedAt = downloadedAt(file);
+        if (fileMode) {
+            memory.put(memoryKey, new MemoryEntry(file.getAbsolutePath(), downloadedAt));
+            callback.onResult(file.getAbsolutePath(), null);
+            return;
+        }
+        try {
+            // Base64.DEFAULT for consistency with the previous inline encoding
+            String base64Image = Base64.encodeToString(read(file), Base64.DEFAULT);
+            memory.put(memoryKey, new MemoryEntry(base64Image, downloadedAt));
+            callback.onResult(base64Image, null);
+        } catch (IOException e) {
+            Log.e(TAG, "Exception reading image", e);
+            callback.onResult(null, "Failed to convert image");
+        }
+    }
+
+    // only ever scales down, keeping the aspect ratio; 0 leaves a dimension unconstrained
+    private static Bitmap scale(Bitmap bitmap, int maxWidth, int maxHeight) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        double ratio = 1;
+        if (maxWidth > 0 && width > maxWidth) {
+            ratio = Math.min(ratio, (double) maxWidth / width);
+        }
+        if (maxHeight > 0 && height > maxHeight) {
+            ratio = Math.min(ratio, (double) maxHeight / height);
+        }
+        if (ratio >= 1) {
+            return bitmap;
+        }
+        return Bitmap.createScaledBitmap(bitmap, Math.max(1, (int) Math.round(width * ratio)),
+            Math.max(1, (int) Math.round(height * ratio)), true);
+    }
+
+    private void write(Bitmap bitmap, File file) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("could not create " + dir);
+        }
+        // written to a temporary file first so readers never see a partial image
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            if (!bitmap.compress(Bitmap.CompressFormat.PNG, 100, out)) {
+                throw new IOException("could not compress image");
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("could not write " + file);
+        }
+    }
+
+    private static byte[] read(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read < 0) {
+                    throw new IOException("unexpected end of " + file);
+                }
+                offset += read;
+            }
+        }
+        return bytes;
+    }
+
+    // evicts the least recently used files until the directory fits maxDiskBytes
+    private void trim() {
+        index();
+        File[] dirFiles = files.values().toArray(new File[0]);
+        long total = 0;
+        for (File file : dirFiles) {
+            total += file.length();
+        }
+        long max;
+        synchronized (this) {
+            max = maxDiskBytes;
+        }
+        if (total <= max) {
+            return;
+        }
+        Arrays.sort(dirFiles, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File file : dirFiles) {
+            if (total <= max) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+                String name = file.getName();
+                files.remove(name.substring(0, name.indexOf('_')));
+            }
+        }
+    }
+
+    private long diskBytes() {
+        File[] files = dir.listFiles();
+        long total = 0;
+        if (files != null) {
+            for (File file : files) {
+                total += file.length();
+            }
+        }
+        return total;
+    }
+
+    private static String hash(String url, int maxWidth, int maxHeight) {
+        String key = maxWidth + "x" + maxHeight + "|" + url;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                sb.append(String.format(Locale.US, "%02x", hash[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+}
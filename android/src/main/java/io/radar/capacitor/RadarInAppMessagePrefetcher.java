@@ -0,0 +1,183 @@
+package io.radar.capacitor;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefetches the images referenced by an in-app message into {@link RadarImageCache} when the
+ * message arrives, so loadImage calls made while rendering it from JS are answered from the cache.
+ * The message itself is never held: the SDK's renderer loads images through its own loader, not
+ * this cache. Loads run at most maxConcurrent at a time and a URL already queued or recently cached
+ * is not requested again. Everything runs on the handler's thread.
+ */
+final class RadarInAppMessagePrefetcher {
+
+    // recently cached URLs remembered so repeat messages don't queue them again
+    private static final int MAX_READY = 200;
+
+    private final RadarImageCache cache;
+    private final Handler handler;
+
+    private volatile boolean enabled = false;
+    private int maxConcurrent = 2;
+
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private final Set<String> queued = new HashSet<>();
+    private final LinkedHashMap<String, Boolean> ready = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_READY;
+        }
+    };
+    private int inFlight = 0;
+
+    private long messages = 0;
+    private long images = 0;
+    private long imagesReady = 0;
+    private long loaded = 0;
+    private long failed = 0;
+    private final RadarHistogram loadMs = new RadarHistogram();
+
+    RadarInAppMessagePrefetcher(RadarImageCache cache, Handler handler) {
+        this.cache = cache;
+        this.handler = handler;
+    }
+
+    synchronized void configure(boolean enabled, int maxConcurrent) {
+        this.enabled = enabled;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void prefetch(JSONObject message) {
+        final Set<String> urls = new LinkedHashSet<>();
+        collectImageUrls(message, null, urls);
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                start(urls);
+            }
+        });
+    }
+
+    private void start(Set<String> urls) {
+        synchronized (this) {
+            messages++;
+            images += urls.size();
+            for (String url : urls) {
+                if (ready.get(url) != null) {
+                    imagesReady++;
+                } else if (queued.add(url)) {
+                    queue.add(url);
+                }
+            }
+        }
+        pump();
+    }
+
+    private void pump() {
+        while (true) {
+            final String url;
+            synchronized (this) {
+                if (inFlight >= maxConcurrent || queue.isEmpty()) {
+                    return;
+                }
+                url = queue.poll();
+                inFlight++;
+            }
+            final long startedAt = SystemClock.elapsedRealtime();
+            cache.load(url, true, 0, 0, new RadarImageCache.Callback() {
+                @Override
+                public void onResult(@Nullable String value, @Nullable String error) {
+                    final boolean success = value != null;
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            onLoaded(url, success, SystemClock.elapsedRealtime() - startedAt);
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    private void onLoaded(String url, boolean success, long elapsedMs) {
+        synchronized (this) {
+            inFlight--;
+            queued.remove(url);
+            if (success) {
+                ready.put(url, Boolean.TRUE);
+                loaded++;
+            } else {
+                failed++;
+            }
+        }
+        loadMs.record(elapsedMs);
+        pump();
+    }
+
+    synchronized JSObject getStats() {
+        JSObject ret = new JSObject();
+        ret.put("enabled", enabled);
+        ret.put("messages", messages);
+        ret.put("images", images);
+        ret.put("imagesReady", imagesReady);
+        ret.put("hitRate", images > 0 ? (double) imagesReady / images : 0);
+        ret.put("loaded", loaded);
+        ret.put("failed", failed);
+        ret.put("inFlight", inFlight);
+        ret.put("queued", queue.size());
+        ret.put("loadMs", loadMs.toJson());
+        return ret;
+    }
+
+    synchronized void resetStats() {
+        messages = 0;
+        images = 0;
+        imagesReady = 0;
+        loaded = 0;
+        failed = 0;
+        loadMs.reset();
+    }
+
+    // http(s) strings under keys named url or containing "image"
+    static void collectImageUrls(Object value, @Nullable String key, Set<String> urls) {
+        if (value instanceof JSONObject) {
+            JSONObject obj = (JSONObject) value;
+            Iterator<String> keys = obj.keys();
+            while (keys.hasNext()) {
+                String next = keys.next();
+                collectImageUrls(obj.opt(next), next, urls);
+            }
+        } else if (value instanceof JSONArray) {
+            JSONArray arr = (JSONArray) value;
+            for (int i = 0; i < arr.length(); i++) {
+                collectImageUrls(arr.opt(i), key, urls);
+            }
+        } else if (value instanceof String && key != null) {
+            String str = (String) value;
+            String lower = key.toLowerCase(Locale.US);
+            if ((lower.equals("url") || lower.contains("image")) && (str.startsWith("https://") || str.startsWith("http://"))) {
+                urls.add(str);
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package io.radar.capacitor;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sits between the SDK receivers and notifyListeners. When enabled, payloads are queued per channel
+ * and flushed on the handler at most maxFlushesPerSecond times per second. When disabled, payloads
+ * are delivered synchronously, as before. RELIABLE payloads are never dropped; when maxReliableQueueSize of
+ * them are queued, the queue is flushed on the dispatching thread instead of waiting for the next
+ * scheduled flush.
+ */
+final class RadarListenerDispatcher {
+
+    enum Policy {
+        // deliver synchronously, bypassing the queue
+        DIRECT,
+        // queue every payload, dropping the oldest when the queue is full
+        QUEUE,
+        // keep only the latest pending payload
+        COALESCE,
+        // join pending "message" payloads into one
+        BATCH,
+        // queue every payload and never drop it, flushing early when maxReliableQueueSize is reached
+        RELIABLE
+    }
+
+    interface Listener {
+        // count is the number of dispatched payloads this delivery stands for after merging
+        void notifyListeners(String eventName, JSObject data, int count);
+
+        // a queued payload was dropped or replaced before delivery; called with the lock held
+        void onDiscarded(String eventName);
+    }
+
+    private static final class Entry {
+        final String eventName;
+        final Policy policy;
+        JSObject data;
+        StringBuilder messages;
+        int count = 1;
+
+        Entry(String eventName, Policy policy, JSObject data) {
+            this.eventName = eventName;
+            this.policy = policy;
+            this.data = data;
+        }
+    }
+
+    private static final class Stats {
+        long received;
+        long delivered;
+        long dropped;
+        long merged;
+    }
+
+    private static final String BATCH_KEY = "message";
+
+    private final Listener listener;
+    private final Handler handler;
+    private final Map<String, Policy> policies = new HashMap<>();
+    private final Map<String, Stats> stats = new HashMap<>();
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private final Map<String, Entry> pending = new HashMap<>();
+
+    private boolean enabled = false;
+    private int maxQueueSize = 100;
+    private int maxReliableQueueSize = 1000;
+    private long minFlushIntervalMs = 0;
+    private int droppableCount = 0;
+    private int reliableCount = 0;
+    private long lastFlushAt = 0;
+    private boolean flushScheduled = false;
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    RadarListenerDispatcher(Listener listener, Handler handler) {
+        this.listener = listener;
+        this.handler = handler;
+
+        policies.put("events", Policy.RELIABLE);
+        policies.put("error", Policy.RELIABLE);
+        policies.put("location", Policy.QUEUE);
+        policies.put("clientLocation", Policy.COALESCE);
+        policies.put("log", Policy.BATCH);
+    }
+
+    synchronized void configure(boolean enabled, int maxQueueSize, int maxReliableQueueSize, int maxFlushesPerSecond) {
+        this.enabled = enabled;
+        this.maxQueueSize = Math.max(1, maxQueueSize);
+        this.maxReliableQueueSize = Math.max(1, maxReliableQueueSize);
+        this.minFlushIntervalMs = maxFlushesPerSecond > 0 ? 1000L / maxFlushesPerSecond : 0;
+        if (!enabled) {
+            scheduleFlush(0);
+        }
+    }
+
+    synchronized void setPolicy(String eventName, Policy policy) {
+        policies.put(eventName, policy);
+    }
+
+    static Policy policyForString(String str) {
+        if (str == null) {
+            return null;
+        }
+        switch (str.toLowerCase()) {
+            case "direct":
+                return Policy.DIRECT;
+            case "queue":
+                return Policy.QUEUE;
+            case "coalesce":
+                return Policy.COALESCE;
+            case "batch":
+                return Policy.BATCH;
+            case "reliable":
+                return Policy.RELIABLE;
+            default:
+                return null;
+        }
+    }
+
+    void dispatch(String eventName, JSObject data) {
+        boolean flushNow;
+        synchronized (this) {
+            Stats channelStats = statsFor(eventName);
+            channelStats.received++;
+
+            Policy policy = policies.get(eventName);
+            if (policy == null) {
+                policy = Policy.DIRECT;
+            }
+            if (enabled && policy != Policy.DIRECT) {
+                enqueue(eventName, policy, data, channelStats);
+                flushNow = reliableCount >= maxReliableQueueSize;
+                if (!flushNow) {
+                    scheduleFlush(minFlushIntervalMs);
+                    return;
+                }
+            } else {
+                flushNow = false;
+                channelStats.delivered++;
+            }
+        }
+        if (flushNow) {
+            // backpressure: deliver the backlog here rather than drop a reliable payload
+            handler.removeCallbacks(flushRunnable);
+            flush();
+            return;
+        }
+        boolean traced = RadarTrace.begin("Radar.notify.", eventName);
+        try {
+            listener.notifyListeners(eventName, data, 1);
+        } finally {
+            RadarTrace.end(traced);
+        }
+    }
+
+    void flush() {
+        List<Entry> entries;
+        synchronized (this) {
+            flushScheduled = false;
+            lastFlushAt = SystemClock.uptimeMillis();
+            if (queue.isEmpty()) {
+                return;
+            }
+            entries = new ArrayList<>(queue);
+            queue.clear();
+            pending.clear();
+            droppableCount = 0;
+            reliableCount = 0;
+            for (Entry entry : entries) {
+                statsFor(entry.eventName).delivered++;
+            }
+        }
+
+        boolean traced = RadarTrace.begin("Radar.flushListeners");
+        try {
+            for (Entry entry : entries) {
+                if (entry.messages != null) {
+                    entry.data.put(BATCH_KEY, entry.messages.toString());
+                    entry.data.put("count", entry.count);
+                }
+                boolean tracedEntry = RadarTrace.begin("Radar.notify.", entry.eventName);
+                try {
+                    listener.notifyListeners(entry.eventName, entry.data, entry.count);
+                } finally {
+                    RadarTrace.end(tracedEntry);
+                }
+            }
+        } finally {
+            RadarTrace.end(traced);
+        }
+    }
+
+    synchronized JSObject getStats() {
+        JSObject channels = new JSObject();
+        long dropped = 0;
+        long merged = 0;
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats channelStats = entry.getValue();
+            JSObject obj = new JSObject();
+            obj.put("received", channelStats.received);
+            obj.put("delivered", channelStats.delivered);
+            obj.put("dropped", channelStats.dropped);
+            obj.put("merged", channelStats.merged);
+            channels.put(entry.getKey(), obj);
+            dropped += channelStats.dropped;
+            merged += channelStats.merged;
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("enabled", enabled);
+        ret.put("queued", queue.size());
+        ret.put("dropped", dropped);
+        ret.put("merged", merged);
+        ret.put("channels", channels);
+        return ret;
+    }
+
+    synchronized void resetStats() {
+        stats.clear();
+    }
+
+    private void enqueue(String eventName, Policy policy, JSObject data, Stats channelStats) {
+        Entry existing = pending.get(eventName);
+        if (existing != null && policy == Policy.COALESCE) {
+            existing.data = data;
+            existing.count++;
+            channelStats.merged++;
+            listener.onDiscarded(eventName);
+            return;
+        }
+        if (existing != null && policy == Policy.BATCH) {
+            if (existing.messages == null) {
+                existing.messages = new StringBuilder(existing.data.getString(BATCH_KEY, ""));
+            }
+            existing.messages.append('\n').append(data.getString(BATCH_KEY, ""));
+            existing.count++;
+            channelStats.merged++;
+            return;
+        }
+
+        if (policy == Policy.RELIABLE) {
+            reliableCount++;
+        } else {
+            if (droppableCount >= maxQueueSize) {
+                dropOldest();
+            }
+            droppableCount++;
+        }
+
+        Entry entry = new Entry(eventName, policy, data);
+        queue.addLast(entry);
+        if (policy == Policy.COALESCE || policy == Policy.BATCH) {
+            pending.put(eventName, entry);
+        }
+    }
+
+    private void dropOldest() {
+        Iterator<Entry> it = queue.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.policy == Policy.RELIABLE) {
+                continue;
+            }
+            it.remove();
+            droppableCount--;
+            if (pending.get(entry.eventName) == entry) {
+                pending.remove(entry.eventName);
+            }
+            statsFor(entry.eventName).dropped += entry.count;
+            listener.onDiscarded(entry.eventName);
+            return;
+        }
+    }
+
+    private void scheduleFlush(long minIntervalMs) {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        long at = Math.max(SystemClock.uptimeMillis(), lastFlushAt + minIntervalMs);
+        handler.postAtTime(flushRunnable, at);
+    }
+
+    private Stats statsFor(String eventName) {
+        Stats channelStats = stats.get(eventName);
+        if (channelStats == null) {
+            channelStats = new Stats();
+            stats.put(eventName, channelStats);
+        }
+        return channelStats;
+    }
+}
@@ -0,0 +1,422 @@
+package io.radar.capacitor;
+
+import android.content.Context;
+import android.location.Location;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+
+import io.radar.sdk.Radar;
+import io.radar.sdk.RadarInAppMessageReceiver;
+import io.radar.sdk.RadarReceiver;
+import io.radar.sdk.RadarVerifiedReceiver;
+import io.radar.sdk.model.RadarEvent;
+import io.radar.sdk.model.RadarInAppMessage;
+import io.radar.sdk.model.RadarUser;
+import io.radar.sdk.model.RadarVerifiedLocationToken;
+
+/**
+ * Debug-only load generator that calls the plugin's own receivers with synthetic models at a fixed
+ * rate, or as fast as the plugin keeps up with when rate is 0, and measures the time from each
+ * callback until the listener payload is handed to the bridge. Models are built once per run from
+ * JSON so the allocation figures are the plugin's, not the generator's. When the dispatcher merges
+ * payloads, a delivery is counted once for each callback it stands for. Only created in debuggable
+ * builds, on the first run. The receivers ask isSynthetic() so the synthetic fixes and events skip
+ * the plugin's side state (location history, context cache, tracking governor, trajectory and
+ * events batching) and only exercise the delivery path.
+ *
+ * <p>payloadSize scales the payloads: the number of geofences on the user and of events per
+ * onEventsReceived. onNewInAppMessage is not driven since it shows the message.
+ */
+final class RadarLoadGenerator {
+
+    interface Listener {
+        void onFinished(JSObject result);
+    }
+
+    private static final String TAG = "RadarLoadGenerator";
+    // callbacks not yet delivered before the generator waits, when running as fast as possible
+    private static final int MAX_OUTSTANDING = 64;
+    private static final int MAX_PENDING = 65536;
+    private static final long DRAIN_TIMEOUT_MS = 5000;
+
+    private final Context context;
+    private final RadarReceiver receiver;
+    private final RadarVerifiedReceiver verifiedReceiver;
+    private final RadarInAppMessageReceiver inAppMessageReceiver;
+    private final Handler handler;
+
+    // read without the lock so deliveries outside a run return immediately
+    private volatile boolean active = false;
+
+    // fields below are guarded by this
+    private boolean running = false;
+    private String eventName;
+    private final long[] pending = new long[MAX_PENDING];
+    private int pendingHead = 0;
+    private int pendingSize = 0;
+    private long sent = 0;
+    private long delivered = 0;
+    private long deliveries = 0;
+    private long lastDeliveredAt = 0;
+    private RadarHistogram latency;
+
+    // models are written while running is held by start() and cleared under the lock by finish()
+    private Location location;
+    private RadarUser user;
+    private RadarEvent[] events;
+    private RadarVerifiedLocationToken token;
+    private RadarInAppMessage inAppMessage;
+    private Listener listener;
+
+    // fields below are only used on the generator thread
+    private String callback;
+    private double rate;
+    private long startedAt;
+    private long endAt;
+    private long allocatedAtStart;
+
+    RadarLoadGenerator(Context context, RadarReceiver receiver, RadarVerifiedReceiver verifiedReceiver,
+            RadarInAppMessageReceiver inAppMessageReceiver) {
+        this.context = context;
+        this.receiver = receiver;
+        this.verifiedReceiver = verifiedReceiver;
+        this.inAppMessageReceiver = inAppMessageReceiver;
+        HandlerThread thread = new HandlerThread(TAG);
+        thread.start();
+        this.handler = new Handler(thread.getLooper());
+    }
+
+    static String eventNameFor(String callback) {
+        switch (callback) {
+            case "location":
+            case "clientLocation":
+            case "events":
+            case "log":
+            case "error":
+            case "token":
+            case "inAppMessageDismissed":
+                return callback;
+            default:
+                return null;
+        }
+    }
+
+    // returns an error, or null once the run has started
+    @Nullable
+    String start(String callback, double rate, long durationMs, int payloadSize, Listener listener) {
+        String eventName = eventNameFor(callback);
+        if (eventName == null) {
+            return "invalid callback: " + callback;
+        }
+        synchronized (this) {
+            if (running) {
+                return "load test already running";
+            }
+            running = true;
+        }
+        String error = null;
+        try {
+            buildModels(Math.max(1, payloadSize));
+        } catch (JSONException e) {
+            error = "could not build synthetic payload: " + e.getMessage();
+        }
+        if (error == null && (user == null || events == null || token == null || inAppMessage == null)) {
+            error = "could not build synthetic payload";
+        }
+        synchronized (this) {
+            if (error != null) {
+                clearModels();
+                running = false;
+                return error;
+            }
+            this.eventName = eventName;
+            pendingHead = 0;
+            pendingSize = 0;
+            sent = 0;
+            delivered = 0;
+            deliveries = 0;
+            lastDeliveredAt = 0;
+            latency = new RadarHistogram();
+            this.listener = listener;
+            active = true;
+        }
+        this.callback = callback;
+        this.rate = rate;
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                allocatedAtStart = allocatedBytes();
+                startedAt = SystemClock.elapsedRealtimeNanos();
+                endAt = startedAt + durationMs * 1000000;
+                tick();
+            }
+        });
+        return null;
+    }
+
+    // true for the models a run is feeding through the receivers, on any thread
+    boolean isSynthetic(Object model) {
+        if (!active || model == null) {
+            return false;
+        }
+        synchronized (this) {
+            return model == location || model == user || model == events;
+        }
+    }
+
+    // called for every payload handed to the bridge, on any thread; count is how many callbacks it covers
+    void onDelivered(String eventName, int count) {
+        if (!active) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtimeNanos();
+        synchronized (this) {
+            if (!running || !eventName.equals(this.eventName) || pendingSize == 0) {
+                return;
+            }
+            deliveries++;
+            lastDeliveredAt = now;
+            for (int i = 0; i < count && pendingSize > 0; i++) {
+                latency.record((now - pending[pendingHead]) / 1000);
+                pendingHead = (pendingHead + 1) % MAX_PENDING;
+                pendingSize--;
+                delivered++;
+            }
+        }
+    }
+
+    private void tick() {
+        long now = SystemClock.elapsedRealtimeNanos();
+        if (now >= endAt) {
+            drain();
+            return;
+        }
+        if (rate > 0) {
+            // fire every callback that is due, then sleep until the next one
+            long due = (long) ((now - startedAt) / 1e9 * rate) + 1;
+            while (sentCount() < due) {
+                fire();
+            }
+            long next = startedAt + (long) (sentCount() * 1e9 / rate);
+            handler.postDelayed(tickRunnable, Math.max(0, (next - SystemClock.elapsedRealtimeNanos()) / 1000000));
+        } else {
+            int fired = 0;
+            while (outstanding() < MAX_OUTSTANDING && fired < MAX_OUTSTANDING) {
+                fire();
+                fired++;
+            }
+            if (fired > 0) {
+                handler.post(tickRunnable);
+            } else {
+                handler.postDelayed(tickRunnable, 1);
+            }
+        }
+    }
+
+    private final Runnable tickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            tick();
+        }
+    };
+
+    private void fire() {
+        long now = SystemClock.elapsedRealtimeNanos();
+        synchronized (this) {
+            if (pendingSize == MAX_PENDING) {
+                // the oldest callback is treated as lost
+                pendingHead = (pendingHead + 1) % MAX_PENDING;
+                pendingSize--;
+            }
+            pending[(pendingHead + pendingSize) % MAX_PENDING] = now;
+            pendingSize++;
+            sent++;
+        }
+        switch (callback) {
+            case "location":
+                receiver.onLocationUpdated(context, location, user);
+                break;
+            case "clientLocation":
+                receiver.onClientLocationUpdated(context, location, false, Radar.RadarLocationSource.FOREGROUND_LOCATION);
+                break;
+            case "events":
+                receiver.onEventsReceived(context, events, user);
+                break;
+            case "log":
+                receiver.onLog(context, "load test");
+                break;
+            case "error":
+                receiver.onError(context, Radar.RadarStatus.ERROR_SERVER);
+                break;
+            case "token":
+                verifiedReceiver.onTokenUpdated(context, token);
+                break;
+            case "inAppMessageDismissed":
+                inAppMessageReceiver.onInAppMessageDismissed(inAppMessage);
+                break;
+        }
+    }
+
+    private void drain() {
+        final long drainUntil = SystemClock.elapsedRealtime() + DRAIN_TIMEOUT_MS;
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (outstanding() > 0 && SystemClock.elapsedRealtime() < drainUntil) {
+                    handler.postDelayed(this, 10);
+                    return;
+                }
+                finish();
+            }
+        });
+    }
+
+    private void finish() {
+        long allocated = allocatedBytes() - allocatedAtStart;
+        JSObject ret = new JSObject();
+        Listener listener;
+        synchronized (this) {
+            long endedAt = lastDeliveredAt > 0 ? lastDeliveredAt : SystemClock.elapsedRealtimeNanos();
+            double durationMs = (endedAt - startedAt) / 1e6;
+            ret.put("callback", callback);
+            ret.put("rate", rate);
+            ret.put("sent", sent);
+            ret.put("delivered", delivered);
+            ret.put("deliveries", deliveries);
+            ret.put("durationMs", durationMs);
+            ret.put("callbacksPerSecond", durationMs > 0 ? delivered * 1000 / durationMs : 0);
+            ret.put("latencyUs", latency.toJson());
+            if (allocatedAtStart >= 0 && allocated >= 0) {
+                ret.put("allocatedBytes", allocated);
+                ret.put("allocatedBytesPerSecond", durationMs > 0 ? allocated * 1000 / durationMs : 0);
+                ret.put("allocatedBytesPerCallback", sent > 0 ? (double) allocated / sent : 0);
+            }
+            // cleared before running so a start() that follows can't have its models wiped
+            listener = this.listener;
+            this.listener = null;
+            clearModels();
+            active = false;
+            eventName = null;
+            running = false;
+        }
+        listener.onFinished(ret);
+    }
+
+    private void clearModels() {
+        location = null;
+        user = null;
+        events = null;
+        token = null;
+        inAppMessage = null;
+    }
+
+    private synchronized long sentCount() {
+        return sent;
+    }
+
+    private synchronized int outstanding() {
+        return pendingSize;
+    }
+
+    // process-wide bytes allocated by ART since start, or -1 if unavailable
+    private static long allocatedBytes() {
+        String value = Debug.getRuntimeStat("art.gc.bytes-allocated");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void buildModels(int payloadSize) throws JSONException {
+        double latitude = 40.7342;
+        double longitude = -73.9911;
+
+        location = new Location("RadarSDK");
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setAccuracy(10);
+        location.setTime(System.currentTimeMillis());
+
+        JSONArray geofences = new JSONArray();
+        for (int i = 0; i < payloadSize; i++) {
+            geofences.put(geofenceJson(i, latitude, longitude));
+        }
+        JSONObject userJson = new JSONObject();
+        userJson.put("_id", "000000000000000000000001");
+        userJson.put("userId", "load-test");
+        userJson.put("deviceId", "load-test");
+        userJson.put("location", pointJson(latitude, longitude));
+        userJson.put("locationAccuracy", 10);
+        userJson.put("stopped", false);
+        userJson.put("foreground", true);
+        userJson.put("geofences", geofences);
+        user = RadarUser.fromJson(userJson);
+
+        JSONArray eventsJson = new JSONArray();
+        for (int i = 0; i < payloadSize; i++) {
+            JSONObject eventJson = new JSONObject();
+            eventJson.put("_id", String.format(Locale.US, "%024x", i + 1));
+            eventJson.put("createdAt", "2024-01-01T00:00:00.000Z");
+            eventJson.put("actualCreatedAt", "2024-01-01T00:00:00.000Z");
+            eventJson.put("live", false);
+            eventJson.put("type", "user.entered_geofence");
+            eventJson.put("geofence", geofenceJson(i, latitude, longitude));
+            eventJson.put("location", pointJson(latitude, longitude));
+            eventJson.put("locationAccuracy", 10);
+            eventJson.put("confidence", 3);
+            eventsJson.put(eventJson);
+        }
+        events = RadarEvent.fromJson(eventsJson);
+
+        JSONObject tokenJson = new JSONObject();
+        tokenJson.put("user", userJson);
+        tokenJson.put("events", eventsJson);
+        tokenJson.put("token", "load-test");
+        tokenJson.put("expiresAt", "2030-01-01T00:00:00.000Z");
+        tokenJson.put("expiresIn", 3600);
+        tokenJson.put("passed", true);
+        token = RadarVerifiedLocationToken.fromJson(tokenJson);
+
+        JSONObject messageJson = new JSONObject();
+        messageJson.put("title", new JSONObject().put("text", "Load test").put("color", "#000000"));
+        messageJson.put("body", new JSONObject().put("text", "Load test").put("color", "#000000"));
+        inAppMessage = RadarInAppMessage.fromJson(messageJson.toString());
+    }
+
+    private static JSONObject geofenceJson(int i, double latitude, double longitude) throws JSONException {
+        JSONObject geofence = new JSONObject();
+        geofence.put("_id", String.format(Locale.US, "%024x", i + 1));
+        geofence.put("description", "Load test geofence " + i);
+        geofence.put("tag", "load-test");
+        geofence.put("externalId", "load-test-" + i);
+        geofence.put("type", "circle");
+        geofence.put("geometryRadius", 100);
+        geofence.put("geometryCenter", pointJson(latitude, longitude));
+        return geofence;
+    }
+
+    private static JSONObject pointJson(double latitude, double longitude) throws JSONException {
+        JSONArray coordinates = new JSONArray();
+        coordinates.put(longitude);
+        coordinates.put(latitude);
+        JSONObject point = new JSONObject();
+        point.put("type", "Point");
+        point.put("coordinates", coordinates);
+        return point;
+    }
+}
@@ -0,0 +1,183 @@
+package io.radar.capacitor;
+
+import android.location.Location;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import io.radar.sdk.Radar;
+
+/**
+ * Fixed-capacity ring buffer of location fixes stored in parallel primitive arrays. Recording
+ * copies primitives out of the Location and allocates nothing; the arrays are only reallocated when
+ * the capacity changes.
+ */
+final class RadarLocationHistory {
+
+    // source code for fixes from onLocationUpdated, client sources are ordinal + 1
+    static final byte SOURCE_LOCATION = 0;
+
+    private volatile boolean enabled = false;
+    private int capacity = 0;
+    private int head = 0;
+    private int size = 0;
+
+    private double[] latitudes = new double[0];
+    private double[] longitudes = new double[0];
+    private float[] accuracies = new float[0];
+    private long[] times = new long[0];
+    private byte[] sources = new byte[0];
+    private byte[] stopped = new byte[0];
+
+    synchronized void configure(boolean enabled, int capacity) {
+        this.enabled = enabled;
+        capacity = Math.max(1, capacity);
+        if (capacity != this.capacity) {
+            resize(capacity);
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    static byte sourceCode(Radar.RadarLocationSource source) {
+        return (byte) (source.ordinal() + 1);
+    }
+
+    static JSArray sourceNames() {
+        JSArray ret = new JSArray();
+        ret.put("LOCATION");
+        for (Radar.RadarLocationSource source : Radar.RadarLocationSource.values()) {
+            ret.put(source.name());
+        }
+        return ret;
+    }
+
+    synchronized void record(Location location, byte source, byte stopped) {
+        if (!enabled || capacity == 0) {
+            return;
+        }
+        int i = (head + size) % capacity;
+        if (size == capacity) {
+            head = (head + 1) % capacity;
+        } else {
+            size++;
+        }
+        latitudes[i] = location.getLatitude();
+        longitudes[i] = location.getLongitude();
+        accuracies[i] = location.hasAccuracy() ? location.getAccuracy() : Float.NaN;
+        times[i] = location.getTime();
+        sources[i] = source;
+        this.stopped[i] = stopped;
+    }
+
+    synchronized void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // fixes with since <= time <= until, simplified with Douglas-Peucker when tolerance (meters) is
+    // positive and then downsampled to at most maxPoints when maxPoints is positive
+    synchronized JSObject query(long since, long until, double tolerance, int maxPoints) {
+        int[] selected = select(since, until);
+        int[] indexes = RadarTrajectorySimplifier.douglasPeucker(latitudes, longitudes, selected, tolerance);
+        return toPacked(downsample(indexes, maxPoints), selected.length);
+    }
+
+    // indexes into the ring, oldest first, of fixes with since <= time <= until
+    private int[] select(long since, long until) {
+        int count = 0;
+        int[] selected = new int[size];
+        for (int k = 0; k < size; k++) {
+            int i = (head + k) % capacity;
+            if (times[i] >= since && times[i] <= until) {
+                selected[count++] = i;
+            }
+        }
+        int[] ret = new int[count];
+        System.arraycopy(selected, 0, ret, 0, count);
+        return ret;
+    }
+
+    // keeps at most maxPoints of the selected fixes at evenly spaced positions, always keeping the last
+    private static int[] downsample(int[] selected, int maxPoints) {
+        if (maxPoints <= 0 || selected.length <= maxPoints) {
+            return selected;
+        }
+        int[] ret = new int[maxPoints];
+        for (int k = 0; k < maxPoints; k++) {
+            ret[k] = selected[maxPoints == 1 ? selected.length - 1 : (int) ((long) k * (selected.length - 1) / (maxPoints - 1))];
+        }
+        return ret;
+    }
+
+    private JSObject toPacked(int[] indexes, int total) {
+        int n = indexes.length;
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        double[] accs = new double[n];
+        double[] ts = new double[n];
+        byte[] srcs = new byte[n];
+        byte[] stps = new byte[n];
+        for (int k = 0; k < n; k++) {
+            int i = indexes[k];
+            lats[k] = latitudes[i];
+            lngs[k] = longitudes[i];
+            accs[k] = accuracies[i];
+            ts[k] = times[i];
+            srcs[k] = sources[i];
+            stps[k] = stopped[i];
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("format", RadarPackedEncoder.FORMAT);
+        ret.put("count", n);
+        ret.put("total", total);
+        ret.put("latitudes", RadarPackedEncoder.float64(lats));
+        ret.put("longitudes", RadarPackedEncoder.float64(lngs));
+        ret.put("accuracies", RadarPackedEncoder.float32(accs));
+        ret.put("times", RadarPackedEncoder.float64(ts));
+        ret.put("sources", RadarPackedEncoder.uint8(srcs));
+        ret.put("stopped", RadarPackedEncoder.uint8(stps));
+        ret.put("sourceNames", sourceNames());
+        return ret;
+    }
+
+    synchronized JSObject getStats() {
+        JSObject ret = new JSObject();
+        ret.put("enabled", enabled);
+        ret.put("capacity", capacity);
+        ret.put("size", size);
+        return ret;
+    }
+
+    private void resize(int newCapacity) {
+        int keep = Math.min(size, newCapacity);
+        double[] lats = new double[newCapacity];
+        double[] lngs = new double[newCapacity];
+        float[] accs = new float[newCapacity];
+        long[] ts = new long[newCapacity];
+        byte[] srcs = new byte[newCapacity];
+        byte[] stps = new byte[newCapacity];
+        // keep the newest fixes
+        for (int k = 0; k < keep; k++) {
+            int i = (head + size - keep + k) % capacity;
+            lats[k] = latitudes[i];
+            lngs[k] = longitudes[i];
+            accs[k] = accuracies[i];
+            ts[k] = times[i];
+            srcs[k] = sources[i];
+            stps[k] = stopped[i];
+        }
+        latitudes = lats;
+        longitudes = lngs;
+        accuracies = accs;
+        times = ts;
+        sources = srcs;
+        stopped = stps;
+        capacity = newCapacity;
+        head = 0;
+        size = keep;
+    }
+}
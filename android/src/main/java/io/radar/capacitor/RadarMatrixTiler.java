@@ -0,0 +1,274 @@
+package io.radar.capacitor;
+
+import android.location.Location;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.radar.sdk.Radar;
+import io.radar.sdk.model.RadarRouteMatrix;
+
+/**
+ * Splits an origins x destinations matrix request into tiles, runs up to concurrency tiles at a
+ * time, caches each tile keyed on geohash-quantized coordinates plus mode and units, and
+ * reassembles the full matrix as row-major distance and duration arrays.
+ */
+final class RadarMatrixTiler {
+
+    private static final class Tile {
+        final int originStart;
+        final int originEnd;
+        final int destinationStart;
+        final int destinationEnd;
+        final String cacheKey;
+
+        Tile(int originStart, int originEnd, int destinationStart, int destinationEnd, String cacheKey) {
+            this.originStart = originStart;
+            this.originEnd = originEnd;
+            this.destinationStart = destinationStart;
+            this.destinationEnd = destinationEnd;
+            this.cacheKey = cacheKey;
+        }
+    }
+
+    private final PluginCall call;
+    private final Location[] origins;
+    private final Location[] destinations;
+    private final Radar.RadarRouteMode mode;
+    private final Radar.RadarRouteUnits units;
+    private final int concurrency;
+    private final RadarResponseCache cache;
+    private final long cacheTtlMs;
+    private final RadarSerializer serializer;
+    private final RadarPluginMetrics metrics;
+    private final long startedAt = SystemClock.elapsedRealtime();
+
+    private final double[] distances;
+    private final double[] durations;
+    private final ArrayDeque<Tile> queue = new ArrayDeque<>();
+    private int tileCount = 0;
+    private int remaining = 0;
+    private int inFlight = 0;
+    private int cachedTiles = 0;
+    private boolean failed = false;
+
+    RadarMatrixTiler(PluginCall call, Location[] origins, Location[] destinations, Radar.RadarRouteMode mode,
+            Radar.RadarRouteUnits units, int tileOrigins, int tileDestinations, int concurrency, int precision,
+            RadarResponseCache cache, long cacheTtlMs, RadarSerializer serializer,
+            RadarPluginMetrics metrics) {
+        this.call = call;
+        this.origins = origins;
+        this.destinations = destinations;
+        this.mode = mode;
+        this.units = units;
+        this.concurrency = Math.max(1, concurrency);
+        this.cache = cache;
+        this.cacheTtlMs = cacheTtlMs;
+        this.serializer = serializer;
+        this.metrics = metrics;
+        this.distances = new double[origins.length * destinations.length];
+        this.durations = new double[origins.length * destinations.length];
+        Arrays.fill(distances, Double.NaN);
+        Arrays.fill(durations, Double.NaN);
+
+        tileOrigins = Math.max(1, tileOrigins);
+        tileDestinations = Math.max(1, tileDestinations);
+        for (int o = 0; o < origins.length; o += tileOrigins) {
+            for (int d = 0; d < destinations.length; d += tileDestinations) {
+                int originEnd = Math.min(origins.length, o + tileOrigins);
+                int destinationEnd = Math.min(destinations.length, d + tileDestinations);
+                queue.add(new Tile(o, originEnd, d, destinationEnd, cacheKey(o, originEnd, d, destinationEnd, precision)));
+            }
+        }
+        tileCount = queue.size();
+        remaining = tileCount;
+    }
+
+    void start() {
+        List<Tile> pending = new ArrayList<>();
+        for (Tile tile : queue) {
+            JSObject hit = cache.get(tile.cacheKey);
+            if (hit != null && fill(tile, hit)) {
+                cachedTiles++;
+                remaining--;
+            } else {
+                pending.add(tile);
+            }
+        }
+        queue.clear();
+        queue.addAll(pending);
+
+        if (remaining == 0) {
+            finish();
+            return;
+        }
+        next();
+    }
+
+    private void next() {
+        List<Tile> toSend = new ArrayList<>();
+        synchronized (this) {
+            while (!failed && inFlight < concurrency && !queue.isEmpty()) {
+                inFlight++;
+                toSend.add(queue.poll());
+            }
+        }
+        for (final Tile tile : toSend) {
+            Location[] tileOrigins = Arrays.copyOfRange(origins, tile.originStart, tile.originEnd);
+            Location[] tileDestinations = Arrays.copyOfRange(destinations, tile.destinationStart, tile.destinationEnd);
+            Radar.getMatrix(tileOrigins, tileDestinations, mode, units, new Radar.RadarMatrixCallback() {
+                @Override
+                public void onComplete(@NonNull final Radar.RadarStatus status,
+                        @Nullable final RadarRouteMatrix matrix) {
+                    serializer.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            onTileComplete(tile, status, matrix);
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    private void onTileComplete(Tile tile, Radar.RadarStatus status, @Nullable RadarRouteMatrix matrix) {
+        boolean done;
+        synchronized (this) {
+            inFlight--;
+            if (failed) {
+                return;
+            }
+            if (status != Radar.RadarStatus.SUCCESS || matrix == null) {
+                failed = true;
+                metrics.reject(call, status.toString());
+                return;
+            }
+
+            JSObject tileResult = tileResult(tile, matrix.toJson());
+            if (tileResult == null || !fill(tile, tileResult)) {
+                failed = true;
+                metrics.reject(call, Radar.RadarStatus.ERROR_SERVER.toString());
+                return;
+            }
+            cache.put(tile.cacheKey, tileResult, cacheTtlMs);
+            remaining--;
+            done = remaining == 0;
+        }
+
+        if (done) {
+            finish();
+        } else {
+            next();
+        }
+    }
+
+    private JSObject tileResult(Tile tile, JSONArray rows) {
+        if (rows == null) {
+            return null;
+        }
+        int tileRows = tile.originEnd - tile.originStart;
+        int tileCols = tile.destinationEnd - tile.destinationStart;
+        JSArray tileDistances = new JSArray();
+        JSArray tileDurations = new JSArray();
+        for (int r = 0; r < tileRows; r++) {
+            JSONArray row = rows.optJSONArray(r);
+            for (int c = 0; c < tileCols; c++) {
+                JSONObject route = row != null ? row.optJSONObject(c) : null;
+                tileDistances.put(valueOf(route, "distance"));
+                tileDurations.put(valueOf(route, "duration"));
+            }
+        }
+        JSObject ret = new JSObject();
+        ret.put("distances", tileDistances);
+        ret.put("durations", tileDurations);
+        return ret;
+    }
+
+    private static Object valueOf(JSONObject route, String key) {
+        if (route == null) {
+            return JSONObject.NULL;
+        }
+        JSONObject obj = route.optJSONObject(key);
+        if (obj == null || !obj.has("value")) {
+            return JSONObject.NULL;
+        }
+        return obj.optDouble("value");
+    }
+
+    private boolean fill(Tile tile, JSObject tileResult) {
+        JSONArray tileDistances = tileResult.optJSONArray("distances");
+        JSONArray tileDurations = tileResult.optJSONArray("durations");
+        int tileCols = tile.destinationEnd - tile.destinationStart;
+        int cells = (tile.originEnd - tile.originStart) * tileCols;
+        if (tileDistances == null || tileDurations == null || tileDistances.length() != cells
+                || tileDurations.length() != cells) {
+            return false;
+        }
+        for (int i = 0; i < cells; i++) {
+            int index = (tile.originStart + i / tileCols) * destinations.length + tile.destinationStart + i % tileCols;
+            distances[index] = tileDistances.optDouble(i);
+            durations[index] = tileDurations.optDouble(i);
+        }
+        return true;
+    }
+
+    private void finish() {
+        JSObject ret = new JSObject();
+        ret.put("status", Radar.RadarStatus.SUCCESS.toString());
+        if (RadarPackedEncoder.FORMAT.equals(call.getString("format"))) {
+            RadarPackedEncoder.putMatrix(ret, origins.length, destinations.length, distances, durations);
+        } else {
+            ret.put("rows", origins.length);
+            ret.put("cols", destinations.length);
+            ret.put("distances", numberArray(distances));
+            ret.put("durations", numberArray(durations));
+        }
+        ret.put("tiles", tileCount);
+        ret.put("cachedTiles", cachedTiles);
+        ret.put("durationMs", SystemClock.elapsedRealtime() - startedAt);
+        metrics.resolve(call, ret);
+    }
+
+    private static JSArray numberArray(double[] values) {
+        JSArray arr = new JSArray();
+        for (double value : values) {
+            if (Double.isNaN(value)) {
+                arr.put(JSONObject.NULL);
+            } else {
+                try {
+                    arr.put(value);
+                } catch (JSONException e) {
+                    arr.put(JSONObject.NULL);
+                }
+            }
+        }
+        return arr;
+    }
+
+    private String cacheKey(int originStart, int originEnd, int destinationStart, int destinationEnd, int precision) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mode).append('|').append(units).append('|');
+        for (int i = originStart; i < originEnd; i++) {
+            sb.append(RadarGeo.geohash(origins[i].getLatitude(), origins[i].getLongitude(), precision)).append(',');
+        }
+        sb.append('|');
+        for (int i = destinationStart; i < destinationEnd; i++) {
+            sb.append(RadarGeo.geohash(destinations[i].getLatitude(), destinations[i].getLongitude(), precision)).append(',');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package io.radar.capacitor;
+
+import android.util.Base64;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Encodes route distances and durations as base64 little-endian Float32 arrays for
+ * format: "packed". Missing values are encoded as NaN. Decoded in JS by src/packed.ts.
+ */
+final class RadarPackedEncoder {
+
+    static final String FORMAT = "packed";
+
+    private RadarPackedEncoder() {
+    }
+
+    static String float32(double[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (double value : values) {
+            buffer.putFloat((float) value);
+        }
+        return Base64.encodeToString(buffer.array(), Base64.NO_WRAP);
+    }
+
+    static String float64(double[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (double value : values) {
+            buffer.putDouble(value);
+        }
+        return Base64.encodeToString(buffer.array(), Base64.NO_WRAP);
+    }
+
+    static String uint8(byte[] values) {
+        return Base64.encodeToString(values, Base64.NO_WRAP);
+    }
+
+    static void putMatrix(JSObject ret, int rows, int cols, double[] distances, double[] durations) {
+        ret.put("format", FORMAT);
+        ret.put("rows", rows);
+        ret.put("cols", cols);
+        ret.put("distances", float32(distances));
+        ret.put("durations", float32(durations));
+    }
+
+    // matrix is RadarRouteMatrix.toJson(), an array of rows of routes
+    static void putMatrix(JSObject ret, JSONArray matrix) {
+        int rows = matrix != null ? matrix.length() : 0;
+        int cols = 0;
+        for (int r = 0; r < rows; r++) {
+            JSONArray row = matrix.optJSONArray(r);
+            if (row != null) {
+                cols = Math.max(cols, row.length());
+            }
+        }
+
+        double[] distances = new double[rows * cols];
+        double[] durations = new double[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            JSONArray row = matrix.optJSONArray(r);
+            for (int c = 0; c < cols; c++) {
+                JSONObject route = row != null ? row.optJSONObject(c) : null;
+                distances[r * cols + c] = value(route, "distance");
+                durations[r * cols + c] = value(route, "duration");
+            }
+        }
+        putMatrix(ret, rows, cols, distances, durations);
+    }
+
+    // routes is RadarRoutes.toJson(), an object keyed by mode
+    static void putRoutes(JSObject ret, JSONObject routes) {
+        List<String> modes = new ArrayList<>();
+        if (routes != null) {
+            Iterator<String> keys = routes.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (routes.optJSONObject(key) != null) {
+                    modes.add(key);
+                }
+            }
+        }
+
+        double[] distances = new double[modes.size()];
+        double[] durations = new double[modes.size()];
+        for (int i = 0; i < modes.size(); i++) {
+            JSONObject route = routes.optJSONObject(modes.get(i));
+            distances[i] = value(route, "distance");
+            durations[i] = value(route, "duration");
+        }
+        ret.put("format", FORMAT);
+        ret.put("modes", new JSArray(modes));
+        ret.put("distances", float32(distances));
+        ret.put("durations", float32(durations));
+    }
+
+    static double value(JSONObject route, String key) {
+        if (route == null) {
+            return Double.NaN;
+        }
+        JSONObject obj = route.optJSONObject(key);
+        if (obj == null || !obj.has("value")) {
+            return Double.NaN;
+        }
+        return obj.optDouble("value");
+    }
+}
@@ -3,12 +3,17 @@ package io.radar.capacitor;
 import android.Manifest;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
 import android.location.Location;
+import android.net.Uri;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.getcapacitor.FileUtils;
 import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
@@ -22,19 +27,23 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.UUID;
 import java.util.HashMap;
 
 import android.view.View;
@@ -71,11 +80,78 @@ public class RadarPlugin extends Plugin {
     private static final String TAG = "RadarPlugin";
     protected static RadarPlugin sPlugin;
 
+    private RadarListenerDispatcher dispatcher;
+    private RadarEventsBatcher eventsBatcher;
+    private final RadarUserDeltaEncoder userDeltaEncoder = new RadarUserDeltaEncoder();
+    private RadarConversionOutbox conversionOutbox;
+    private final RadarGeocodeCache geocodeCache = new RadarGeocodeCache();
+    private final RadarResponseCache matrixCache = new RadarResponseCache("matrix", 200);
+    private final RadarContextCache contextCache = new RadarContextCache();
+    private final RadarSearchCache searchCache = new RadarSearchCache();
+    private final RadarGeofenceIndex geofenceIndex = new RadarGeofenceIndex();
+    private final RadarSingleFlight singleFlight = new RadarSingleFlight();
+    private final RadarLocationHistory locationHistory = new RadarLocationHistory();
+    private RadarTrajectorySimplifier trajectory;
+    private final RadarTraceReplay traceReplay = new RadarTraceReplay();
+    private RadarReceiver receiver;
+    private RadarVerifiedReceiver verifiedReceiver;
+    private RadarInAppMessageReceiver inAppMessageReceiver;
+    // only created by runReceiverLoadTest in debuggable builds
+    private volatile RadarLoadGenerator loadGenerator;
+    private RadarImageCache imageCache;
+    private RadarInAppMessagePrefetcher inAppMessagePrefetcher;
+    private RadarTrackingGovernor trackingGovernor;
+    private final RadarSerializer serializer = new RadarSerializer();
+    private final RadarPluginMetrics metrics = new RadarPluginMetrics(new Handler(Looper.getMainLooper()));
+    private final RadarAutocompletePipeline autocompletePipeline = new RadarAutocompletePipeline(new Handler(Looper.getMainLooper()), serializer, metrics);
+
     @Override
     public void load() {
         sPlugin = this;
+        RadarSerializer.init(getContext());
+        imageCache = new RadarImageCache(getContext().getCacheDir(), 8 * 1024 * 1024);
+        inAppMessagePrefetcher = new RadarInAppMessagePrefetcher(imageCache, new Handler(Looper.getMainLooper()));
+        trackingGovernor = new RadarTrackingGovernor(getContext(), new Handler(Looper.getMainLooper()), new RadarTrackingGovernor.Listener() {
+            @Override
+            public void onRuleChanged(RadarTrackingOptions options, JSObject event) {
+                Radar.startTracking(options);
+                notifyListeners("trackingPresetChanged", event);
+            }
+        });
+
+        trajectory = new RadarTrajectorySimplifier(serializer.getHandler(), new RadarTrajectorySimplifier.Listener() {
+            @Override
+            public void onFlush(RadarTrajectorySimplifier.Fix fix) {
+                notifyClientLocation(fix.location, fix.stopped, fix.source);
+            }
+        });
+
+        dispatcher = new RadarListenerDispatcher(new RadarListenerDispatcher.Listener() {
+            @Override
+            public void notifyListeners(String eventName, JSObject data, int count) {
+                RadarPlugin.this.notifyListeners(eventName, data, count);
+            }
+
+            @Override
+            public void onDiscarded(String eventName) {
+                userDeltaEncoder.requestSnapshot(eventName);
+            }
+        }, serializer.getHandler());
+
+        eventsBatcher = new RadarEventsBatcher(new RadarEventsBatcher.Listener() {
+            @Override
+            public void onEventsFlushed(RadarEvent[] events, RadarUser user) {
+                notifyEvents(events, user);
+            }
+        }, serializer.getHandler());
+
+        if (RadarConversionOutbox.isPersistedEnabled(getContext())) {
+            // conversions left over from the last session drain without waiting for setConversionOutboxOptions
+            conversionOutbox = createConversionOutbox();
+            conversionOutbox.restore();
+        }
 
-        Radar.setReceiver(new RadarReceiver() {
+        receiver = new RadarReceiver() {
             @Override
             public void onEventsReceived(@NonNull Context context, @NonNull RadarEvent[] events,
                     @Nullable RadarUser user) {
@@ -83,16 +159,22 @@ public class RadarPlugin extends Plugin {
                     return;
                 }
 
-                try {
-                    JSObject ret = new JSObject();
-                    ret.put("events", RadarPlugin.jsArrayForJSONArray(RadarEvent.toJson(events)));
-                    if (user != null) {
-                        ret.put("user", RadarPlugin.jsObjectForJSONObject(user.toJson()));
+                final boolean synthetic = sPlugin.isSynthetic(events);
+                sPlugin.serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean traced = RadarTrace.begin("Radar.onEventsReceived");
+                        try {
+                            if (sPlugin.eventsBatcher.isEnabled() && !synthetic) {
+                                sPlugin.eventsBatcher.add(events, user);
+                            } else {
+                                sPlugin.notifyEvents(events, user);
+                            }
+                        } finally {
+                            RadarTrace.end(traced);
+                        }
                     }
-                    sPlugin.notifyListeners("events", ret);
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception", e);
-                }
+                });
             }
 
             @Override
@@ -102,14 +184,27 @@ public class RadarPlugin extends Plugin {
                     return;
                 }
 
-                try {
-                    JSObject ret = new JSObject();
-                    ret.put("location", RadarPlugin.jsObjectForJSONObject(Radar.jsonForLocation(location)));
-                    ret.put("user", RadarPlugin.jsObjectForJSONObject(user.toJson()));
-                    sPlugin.notifyListeners("location", ret);
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception", e);
+                if (!sPlugin.isSynthetic(location)) {
+                    sPlugin.locationHistory.record(location, RadarLocationHistory.SOURCE_LOCATION, (byte) (user.getStopped() ? 1 : 0));
                 }
+                sPlugin.serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean traced = RadarTrace.begin("Radar.onLocationUpdated");
+                        try {
+                            long startedAt = sPlugin.metrics.now();
+                            JSObject ret = new JSObject();
+                            RadarBridgeEncoder.putLocation(ret, "location", location);
+                            sPlugin.putListenerUser(ret, "location", user);
+                            sPlugin.dispatcher.dispatch("location", ret);
+                            sPlugin.metrics.receiver("location", startedAt, ret);
+                        } catch (Exception e) {
+                            Log.e(TAG, "Exception", e);
+                        } finally {
+                            RadarTrace.end(traced);
+                        }
+                    }
+                });
             }
 
             @Override
@@ -119,15 +214,36 @@ public class RadarPlugin extends Plugin {
                     return;
                 }
 
-                try {
-                    JSObject ret = new JSObject();
-                    ret.put("location", RadarPlugin.jsObjectForJSONObject(Radar.jsonForLocation(location)));
-                    ret.put("stopped", stopped);
-                    ret.put("source", Radar.stringForSource(source));
-                    sPlugin.notifyListeners("clientLocation", ret);
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception", e);
+                final boolean synthetic = sPlugin.isSynthetic(location);
+                if (!synthetic) {
+                    sPlugin.locationHistory.record(location, RadarLocationHistory.sourceCode(source), (byte) (stopped ? 1 : 0));
                 }
+                sPlugin.serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean traced = RadarTrace.begin("Radar.onClientLocationUpdated");
+                        try {
+                            if (synthetic) {
+                                // load test fixes only exercise delivery
+                                sPlugin.notifyClientLocation(location, stopped, source);
+                                return;
+                            }
+                            sPlugin.contextCache.onLocation(location);
+                            sPlugin.trackingGovernor.onLocation(location);
+                            if (sPlugin.trajectory.isEnabled()) {
+                                for (RadarTrajectorySimplifier.Fix fix : sPlugin.trajectory.offer(location, stopped, source)) {
+                                    sPlugin.notifyClientLocation(fix.location, fix.stopped, fix.source);
+                                }
+                            } else {
+                                sPlugin.notifyClientLocation(location, stopped, source);
+                            }
+                        } catch (Exception e) {
+                            Log.e(TAG, "Exception", e);
+                        } finally {
+                            RadarTrace.end(traced);
+                        }
+                    }
+                });
             }
 
             @Override
@@ -136,13 +252,23 @@ public class RadarPlugin extends Plugin {
                     return;
                 }
 
-                try {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    sPlugin.notifyListeners("error", ret);
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception", e);
-                }
+                sPlugin.serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean traced = RadarTrace.begin("Radar.onError");
+                        try {
+                            long startedAt = sPlugin.metrics.now();
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            sPlugin.dispatcher.dispatch("error", ret);
+                            sPlugin.metrics.receiver("error", startedAt, ret);
+                        } catch (Exception e) {
+                            Log.e(TAG, "Exception", e);
+                        } finally {
+                            RadarTrace.end(traced);
+                        }
+                    }
+                });
             }
 
             @Override
@@ -151,49 +277,93 @@ public class RadarPlugin extends Plugin {
                     return;
                 }
 
-                try {
-                    JSObject ret = new JSObject();
-                    ret.put("message", message);
-                    sPlugin.notifyListeners("log", ret);
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception", e);
-                }
+                sPlugin.serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean traced = RadarTrace.begin("Radar.onLog");
+                        try {
+                            long startedAt = sPlugin.metrics.now();
+                            JSObject ret = new JSObject();
+                            ret.put("message", message);
+                            sPlugin.dispatcher.dispatch("log", ret);
+                            sPlugin.metrics.receiver("log", startedAt, ret);
+                        } catch (Exception e) {
+                            Log.e(TAG, "Exception", e);
+                        } finally {
+                            RadarTrace.end(traced);
+                        }
+                    }
+                });
             }
-        });
+        };
+        Radar.setReceiver(receiver);
 
-        Radar.setVerifiedReceiver(new RadarVerifiedReceiver() {
+        verifiedReceiver = new RadarVerifiedReceiver() {
             @Override
             public void onTokenUpdated(@NonNull Context context, @NonNull RadarVerifiedLocationToken token) {
                 if (sPlugin == null) {
                     return;
                 }
 
-                try {
-                    JSObject ret = new JSObject();
-                    ret.put("token", RadarPlugin.jsObjectForJSONObject(token.toJson()));
-                    sPlugin.notifyListeners("token", ret);
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception", e);
-                }
+                sPlugin.serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean traced = RadarTrace.begin("Radar.onTokenUpdated");
+                        try {
+                            long startedAt = sPlugin.metrics.now();
+                            JSObject ret = new JSObject();
+                            RadarBridgeEncoder.putObject(ret, "token", token.toJson());
+                            sPlugin.notifyListeners("token", ret);
+                            sPlugin.metrics.receiver("token", startedAt, ret);
+                        } catch (Exception e) {
+                            Log.e(TAG, "Exception", e);
+                        } finally {
+                            RadarTrace.end(traced);
+                        }
+                    }
+                });
             }
-        });
+        };
+        Radar.setVerifiedReceiver(verifiedReceiver);
 
-        Radar.setInAppMessageReceiver(new io.radar.sdk.RadarInAppMessageReceiver() {
+        inAppMessageReceiver = new io.radar.sdk.RadarInAppMessageReceiver() {
             @Override
             public void onNewInAppMessage(@NonNull io.radar.sdk.model.RadarInAppMessage inAppMessage) {
                 if (sPlugin == null) {
                     return;
                 }
-                try {
-                    JSObject ret = new JSObject();
-                    // toJson() returns a String, need to parse it to JSONObject first
-                    ret.put("message", RadarPlugin.jsObjectForJSONObject(new JSONObject(inAppMessage.toJson())));
-                    sPlugin.notifyListeners("inAppMessage", ret);
-                    // Show the message using Radar SDK
-                    Radar.showInAppMessage(inAppMessage);
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception", e);
-                }
+
+                final Handler mainHandler = new Handler(Looper.getMainLooper());
+                sPlugin.serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean traced = RadarTrace.begin("Radar.onNewInAppMessage");
+                        try {
+                            long startedAt = sPlugin.metrics.now();
+                            JSObject ret = new JSObject();
+                            // toJson() returns a String, need to parse it to JSONObject first
+                            JSONObject messageJson = new JSONObject(inAppMessage.toJson());
+                            if (sPlugin.inAppMessagePrefetcher.isEnabled()) {
+                                // warms the image cache for loadImage calls made while rendering it in JS
+                                sPlugin.inAppMessagePrefetcher.prefetch(messageJson);
+                            }
+                            RadarBridgeEncoder.putObject(ret, "message", messageJson);
+                            sPlugin.notifyListeners("inAppMessage", ret);
+                            sPlugin.metrics.receiver("inAppMessage", startedAt, ret);
+                            // Show the message using Radar SDK, which needs the main thread
+                            mainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    Radar.showInAppMessage(inAppMessage);
+                                }
+                            });
+                        } catch (Exception e) {
+                            Log.e(TAG, "Exception", e);
+                        } finally {
+                            RadarTrace.end(traced);
+                        }
+                    }
+                });
             }
 
             @Override
@@ -201,13 +371,24 @@ public class RadarPlugin extends Plugin {
                 if (sPlugin == null) {
                     return;
                 }
-                try {
-                    JSObject ret = new JSObject();
-                    ret.put("message", RadarPlugin.jsObjectForJSONObject(new JSONObject(inAppMessage.toJson())));
-                    sPlugin.notifyListeners("inAppMessageDismissed", ret);
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception", e);
-                }
+
+                sPlugin.serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean traced = RadarTrace.begin("Radar.onInAppMessageDismissed");
+                        try {
+                            long startedAt = sPlugin.metrics.now();
+                            JSObject ret = new JSObject();
+                            RadarBridgeEncoder.putObject(ret, "message", new JSONObject(inAppMessage.toJson()));
+                            sPlugin.notifyListeners("inAppMessageDismissed", ret);
+                            sPlugin.metrics.receiver("inAppMessageDismissed", startedAt, ret);
+                        } catch (Exception e) {
+                            Log.e(TAG, "Exception", e);
+                        } finally {
+                            RadarTrace.end(traced);
+                        }
+                    }
+                });
             }
 
             @Override
@@ -215,13 +396,24 @@ public class RadarPlugin extends Plugin {
                 if (sPlugin == null) {
                     return;
                 }
-                try {
-                    JSObject ret = new JSObject();
-                    ret.put("message", RadarPlugin.jsObjectForJSONObject(new JSONObject(inAppMessage.toJson())));
-                    sPlugin.notifyListeners("inAppMessageButtonClicked", ret);
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception", e);
-                }
+
+                sPlugin.serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean traced = RadarTrace.begin("Radar.onInAppMessageButtonClicked");
+                        try {
+                            long startedAt = sPlugin.metrics.now();
+                            JSObject ret = new JSObject();
+                            RadarBridgeEncoder.putObject(ret, "message", new JSONObject(inAppMessage.toJson()));
+                            sPlugin.notifyListeners("inAppMessageButtonClicked", ret);
+                            sPlugin.metrics.receiver("inAppMessageButtonClicked", startedAt, ret);
+                        } catch (Exception e) {
+                            Log.e(TAG, "Exception", e);
+                        } finally {
+                            RadarTrace.end(traced);
+                        }
+                    }
+                });
             }
 
             @Override
@@ -239,11 +431,79 @@ public class RadarPlugin extends Plugin {
                     onViewReady
                 );
             }
-        });
+        };
+        Radar.setInAppMessageReceiver(inAppMessageReceiver);
+    }
+
+    @Override
+    protected void notifyListeners(String eventName, JSObject data) {
+        notifyListeners(eventName, data, 1);
+    }
+
+    // count is how many receiver callbacks the payload covers once the dispatcher has merged them
+    private void notifyListeners(String eventName, JSObject data, int count) {
+        super.notifyListeners(eventName, data);
+        RadarLoadGenerator generator = loadGenerator;
+        if (generator != null) {
+            generator.onDelivered(eventName, count);
+        }
+    }
+
+    private void notifyEvents(RadarEvent[] events, RadarUser user) {
+        boolean traced = RadarTrace.begin("Radar.notifyEvents");
+        try {
+            long startedAt = metrics.now();
+            JSObject ret = new JSObject();
+            RadarBridgeEncoder.putEvents(ret, "events", events);
+            putListenerUser(ret, "events", user);
+            dispatcher.dispatch("events", ret);
+            metrics.receiver("events", startedAt, ret);
+        } catch (Exception e) {
+            Log.e(TAG, "Exception", e);
+        } finally {
+            RadarTrace.end(traced);
+        }
+    }
+
+    private void notifyClientLocation(Location location, boolean stopped, Radar.RadarLocationSource source) {
+        long startedAt = metrics.now();
+        JSObject ret = new JSObject();
+        RadarBridgeEncoder.putLocation(ret, "location", location);
+        ret.put("stopped", stopped);
+        ret.put("source", Radar.stringForSource(source));
+        dispatcher.dispatch("clientLocation", ret);
+        metrics.receiver("clientLocation", startedAt, ret);
+    }
+
+    // true for the synthetic models of a running receiver load test
+    private boolean isSynthetic(Object model) {
+        RadarLoadGenerator generator = loadGenerator;
+        return generator != null && generator.isSynthetic(model);
+    }
+
+    private void putListenerUser(JSObject ret, String channel, RadarUser user) {
+        if (userDeltaEncoder.isEnabled()) {
+            userDeltaEncoder.putUser(ret, channel, user);
+        } else {
+            RadarBridgeEncoder.putUser(ret, "user", user);
+        }
+    }
+
+    private void resolveCall(PluginCall call) {
+        metrics.resolve(call);
+    }
+
+    private void resolveCall(PluginCall call, JSObject ret) {
+        metrics.resolve(call, ret);
+    }
+
+    private void rejectCall(PluginCall call, String message) {
+        metrics.reject(call, message);
     }
 
     @PluginMethod()
     public void initialize(PluginCall call) {
+        metrics.begin(call);
         String publishableKey = call.getString("publishableKey");
         SharedPreferences.Editor editor = this.getContext().getSharedPreferences("RadarSDK", Context.MODE_PRIVATE)
         .edit();
@@ -251,15 +511,16 @@ public class RadarPlugin extends Plugin {
         editor.putString("x_platform_sdk_version", "4.0.0");
         editor.apply();
         Radar.initialize(this.getContext(), publishableKey);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void setLogLevel(PluginCall call) {
+        metrics.begin(call);
         String level = call.getString("level");
         Radar.RadarLogLevel logLevel = Radar.RadarLogLevel.NONE;
         if (level == null) {
-            call.reject("level is required");
+            rejectCall(call, "level is required");
             return;
         }
 
@@ -273,56 +534,63 @@ public class RadarPlugin extends Plugin {
         } else if (level.equals("debug")) {
             logLevel = Radar.RadarLogLevel.DEBUG;
         } else {
-            call.reject("invalid level: " + level);
+            rejectCall(call, "invalid level: " + level);
             return;
         }
 
         Radar.setLogLevel(logLevel);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void setUserId(PluginCall call) {
+        metrics.begin(call);
         String userId = call.getString("userId");
         Radar.setUserId(userId);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void getUserId(PluginCall call) {
+        metrics.begin(call);
         JSObject ret = new JSObject();
         ret.put("userId", Radar.getUserId());
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void setDescription(PluginCall call) {
+        metrics.begin(call);
         String description = call.getString("description");
         Radar.setDescription(description);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void getDescription(PluginCall call) {
+        metrics.begin(call);
         JSObject ret = new JSObject();
         ret.put("description", Radar.getDescription());
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void setMetadata(PluginCall call) {
+        metrics.begin(call);
         JSObject metadata = call.getObject("metadata");
         Radar.setMetadata(RadarPlugin.jsonObjectForJSObject(metadata));
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void getMetadata(PluginCall call) {
-        call.resolve(RadarPlugin.jsObjectForJSONObject(Radar.getMetadata()));
+        metrics.begin(call);
+        resolveCall(call, RadarPlugin.jsObjectForJSONObject(Radar.getMetadata()));
     }
 
     @PluginMethod()
     public void getTags(PluginCall call) {
+        metrics.begin(call);
         JSObject ret = new JSObject();
         String[] tags = Radar.getTags();
         if (tags != null) {
@@ -330,11 +598,12 @@ public class RadarPlugin extends Plugin {
         } else {
             ret.put("tags", new JSArray());
         }
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void setTags(PluginCall call) {
+        metrics.begin(call);
         JSArray tagsArray = call.getArray("tags");
         if (tagsArray != null) {
             try {
@@ -350,14 +619,15 @@ public class RadarPlugin extends Plugin {
         } else {
             Radar.setTags(null);
         }
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void addTags(PluginCall call) {
+        metrics.begin(call);
         JSArray tagsArray = call.getArray("tags");
         if (tagsArray == null) {
-            call.reject("tags is required");
+            rejectCall(call, "tags is required");
             return;
         }
         try {
@@ -367,18 +637,19 @@ public class RadarPlugin extends Plugin {
                 tags[i] = (String) tagsList.get(i);
             }
             Radar.addTags(tags);
-            call.resolve();
+            resolveCall(call);
         } catch (Exception e) {
             Log.e(TAG, "Exception", e);
-            call.reject("Failed to add tags");
+            rejectCall(call, "Failed to add tags");
         }
     }
 
     @PluginMethod()
     public void removeTags(PluginCall call) {
+        metrics.begin(call);
         JSArray tagsArray = call.getArray("tags");
         if (tagsArray == null) {
-            call.reject("tags is required");
+            rejectCall(call, "tags is required");
             return;
         }
         try {
@@ -388,37 +659,41 @@ public class RadarPlugin extends Plugin {
                 tags[i] = (String) tagsList.get(i);
             }
             Radar.removeTags(tags);
-            call.resolve();
+            resolveCall(call);
         } catch (Exception e) {
             Log.e(TAG, "Exception", e);
-            call.reject("Failed to remove tags");
+            rejectCall(call, "Failed to remove tags");
         }
     }
 
     @PluginMethod()
     public void setProduct(PluginCall call) {
+        metrics.begin(call);
         String product = call.getString("product");
         Radar.setProduct(product);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void getProduct(PluginCall call) {
+        metrics.begin(call);
         JSObject ret = new JSObject();
         String product = Radar.getProduct();
         ret.put("product", product != null ? product : "");
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void setAnonymousTrackingEnabled(PluginCall call) {
+        metrics.begin(call);
         boolean enabled = call.getBoolean("enabled");
         Radar.setAnonymousTrackingEnabled(enabled);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void getLocationPermissionsStatus(PluginCall call) {
+        metrics.begin(call);
         boolean foreground = hasPermission(Manifest.permission.ACCESS_FINE_LOCATION)
                 || hasPermission(Manifest.permission.ACCESS_COARSE_LOCATION);
 
@@ -435,15 +710,16 @@ public class RadarPlugin extends Plugin {
         }
         JSObject ret = new JSObject();
         ret.put("status", status);
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void requestLocationPermissions(PluginCall call) {
+        metrics.begin(call);
         boolean foreground = hasPermission(Manifest.permission.ACCESS_FINE_LOCATION);
 
         if (!call.hasOption("background")) {
-            call.reject("background is required");
+            rejectCall(call, "background is required");
 
             return;
         }
@@ -462,11 +738,12 @@ public class RadarPlugin extends Plugin {
                 );
             }
         }
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void getLocation(final PluginCall call) throws JSONException {
+        metrics.begin(call);
         String desiredAccuracy = call.getString("desiredAccuracy");
         RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy accuracyLevel = RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy.MEDIUM;
         String accuracy = desiredAccuracy != null ? desiredAccuracy.toLowerCase() : "medium";
@@ -478,46 +755,62 @@ public class RadarPlugin extends Plugin {
         } else if (accuracy.equals("high")) {
             accuracyLevel = RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy.HIGH;
         } else {
-            call.reject("invalid desiredAccuracy: " + desiredAccuracy);
+            rejectCall(call, "invalid desiredAccuracy: " + desiredAccuracy);
+            return;
+        }
+
+        final int rank = RadarSingleFlight.rank(accuracyLevel);
+        int maxAge = call.getInt("maxAge", 0);
+        RadarSingleFlight.Fix fix = maxAge > 0 ? singleFlight.recentFix(rank, maxAge) : null;
+        if (fix != null) {
+            JSObject ret = new JSObject();
+            ret.put("status", Radar.RadarStatus.SUCCESS.toString());
+            RadarBridgeEncoder.putLocation(ret, "location", fix.location);
+            ret.put("stopped", fix.stopped);
+            ret.put("cached", true);
+            resolveCall(call, ret);
             return;
         }
 
+        if (singleFlight.isEnabled() && singleFlight.join("getLocation", rank, call)) {
+            return;
+        }
+        final RadarSingleFlight.Flight flight = singleFlight.isEnabled()
+            ? singleFlight.start("getLocation", rank, call)
+            : null;
+
+        metrics.invoked(call);
         Radar.getLocation(accuracyLevel, new Radar.RadarLocationCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable Location location, boolean stopped) {
-                if (status == Radar.RadarStatus.SUCCESS && location != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("location", RadarPlugin.jsObjectForJSONObject(Radar.jsonForLocation(location)));
-                    ret.put("stopped", stopped);
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        List<PluginCall> calls = flight != null ? singleFlight.complete(flight) : Collections.singletonList(call);
+                        if (status == Radar.RadarStatus.SUCCESS && location != null) {
+                            singleFlight.recordFix(location, stopped, rank);
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putLocation(ret, "location", location);
+                            ret.put("stopped", stopped);
+                            for (PluginCall waiting : calls) {
+                                resolveCall(waiting, ret);
+                            }
+                        } else {
+                            for (PluginCall waiting : calls) {
+                                rejectCall(waiting, status.toString());
+                            }
+                        }
+                    }
+                });
             }
         });
     }
 
     @PluginMethod()
     public void trackOnce(final PluginCall call) {
-        Radar.RadarTrackCallback callback = new Radar.RadarTrackCallback() {
-            @Override
-            public void onComplete(@NotNull Radar.RadarStatus status, @Nullable Location location,
-                    @Nullable RadarEvent[] events, @Nullable RadarUser user
-                ) {
-                if (status == Radar.RadarStatus.SUCCESS && location != null && events != null && user != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("location", RadarPlugin.jsObjectForJSONObject(Radar.jsonForLocation(location)));
-                    ret.put("events", RadarPlugin.jsArrayForJSONArray(RadarEvent.toJson(events)));
-                    ret.put("user", RadarPlugin.jsObjectForJSONObject(user.toJson()));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
-            }
-        };
-
+        metrics.begin(call);
         if (call.hasOption("latitude") && call.hasOption("longitude") && call.hasOption("accuracy")) {
             double latitude = call.getDouble("latitude");
             double longitude = call.getDouble("longitude");
@@ -527,10 +820,16 @@ public class RadarPlugin extends Plugin {
             location.setLongitude(longitude);
             location.setAccuracy(accuracy);
 
-            Radar.trackOnce(location, callback);
-        } else if (call.hasOption("desiredAccuracy")) {
-            RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy accuracyLevel = RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy.MEDIUM;
+            metrics.invoked(call);
+            Radar.trackOnce(location, trackOnceCallback(call, null, false, -1));
+            return;
+        }
 
+        String key = "trackOnce";
+        int rank = -1;
+        RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy accuracyLevel = null;
+        boolean beaconsTrackingOption = false;
+        if (call.hasOption("desiredAccuracy")) {
             String desiredAccuracy = call.getString("desiredAccuracy").toLowerCase();
             if (desiredAccuracy.equals("none")) {
                 accuracyLevel = RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy.NONE;
@@ -541,22 +840,77 @@ public class RadarPlugin extends Plugin {
             } else if (desiredAccuracy.equals("high")) {
                 accuracyLevel = RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy.HIGH;
             } else {
-                call.reject("invalid desiredAccuracy: " + desiredAccuracy);
+                rejectCall(call, "invalid desiredAccuracy: " + desiredAccuracy);
                 return;
             }
 
-            boolean beaconsTrackingOption = false;
             if (call.hasOption("beacons")) {
                 beaconsTrackingOption = call.getBoolean("beacons");
             }
+            rank = RadarSingleFlight.rank(accuracyLevel);
+            key = "trackOnce|" + beaconsTrackingOption;
+        }
+
+        // calls without desiredAccuracy use the tracking options' accuracy and only merge with each other
+        if (singleFlight.isEnabled() && singleFlight.join(key, rank, call)) {
+            return;
+        }
+        int maxAge = call.getInt("maxAge", 0);
+        RadarSingleFlight.Fix fix = maxAge > 0 ? singleFlight.recentFix(Math.max(rank, 0), maxAge) : null;
+        // a send of a cached fix isn't joinable, callers without maxAge never opted into a stale location
+        RadarSingleFlight.Flight flight = singleFlight.isEnabled() && fix == null ? singleFlight.start(key, rank, call) : null;
+        Radar.RadarTrackCallback callback = trackOnceCallback(call, flight, fix == null, rank);
+
+        metrics.invoked(call);
+        if (fix != null) {
+            // reuse the recent fix and skip the location request
+            Radar.trackOnce(fix.location, callback);
+        } else if (accuracyLevel != null) {
             Radar.trackOnce(accuracyLevel, beaconsTrackingOption, callback);
         } else {
             Radar.trackOnce(callback);
         }
     }
 
+    // rank is the requested accuracy, or -1 to derive it from the fix
+    private Radar.RadarTrackCallback trackOnceCallback(final PluginCall call, @Nullable final RadarSingleFlight.Flight flight,
+            final boolean recordFix, final int rank) {
+        return new Radar.RadarTrackCallback() {
+            @Override
+            public void onComplete(@NotNull Radar.RadarStatus status, @Nullable Location location,
+                    @Nullable RadarEvent[] events, @Nullable RadarUser user
+                ) {
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        List<PluginCall> calls = flight != null ? singleFlight.complete(flight) : Collections.singletonList(call);
+                        if (status == Radar.RadarStatus.SUCCESS && location != null && events != null && user != null) {
+                            if (recordFix) {
+                                singleFlight.recordFix(location, user.getStopped(), rank >= 0 ? rank : RadarSingleFlight.rank(location));
+                            }
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putLocation(ret, "location", location);
+                            RadarBridgeEncoder.putEvents(ret, "events", events);
+                            RadarBridgeEncoder.putUser(ret, "user", user);
+                            for (PluginCall waiting : calls) {
+                                resolveCall(waiting, ret);
+                            }
+                        } else {
+                            for (PluginCall waiting : calls) {
+                                rejectCall(waiting, status.toString());
+                            }
+                        }
+                    }
+                });
+            }
+        };
+    }
+
     @PluginMethod()
     public void trackVerified(final PluginCall call) {
+        metrics.begin(call);
         boolean beacons = call.getBoolean("beacons", false);
         String accuracyStr = call.getString("desiredAccuracy", "medium");
         RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy desiredAccuracy = RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy.MEDIUM;
@@ -577,88 +931,124 @@ public class RadarPlugin extends Plugin {
         String reason = call.getString("reason");
         String transactionId = call.getString("transactionId");
 
+        metrics.invoked(call);
         Radar.trackVerified(beacons, desiredAccuracy, reason, transactionId, new Radar.RadarTrackVerifiedCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable RadarVerifiedLocationToken token) {
-                if (status == Radar.RadarStatus.SUCCESS && token != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("token", RadarPlugin.jsObjectForJSONObject(token.toJson()));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && token != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putObject(ret, "token", token.toJson());
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
             }
         });
     }
 
     @PluginMethod()
     public void getVerifiedLocationToken(final PluginCall call) {
+        metrics.begin(call);
+        metrics.invoked(call);
         Radar.getVerifiedLocationToken(new Radar.RadarTrackVerifiedCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable RadarVerifiedLocationToken token) {
-                if (status == Radar.RadarStatus.SUCCESS && token != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("token", RadarPlugin.jsObjectForJSONObject(token.toJson()));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && token != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putObject(ret, "token", token.toJson());
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
             }
         });
     }
 
     @PluginMethod()
     public void setExpectedJurisdiction(final PluginCall call) {
+        metrics.begin(call);
         String countryCode = call.getString("countryCode");
         String stateCode = call.getString("stateCode");
 
         Radar.setExpectedJurisdiction(countryCode, stateCode);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void startTrackingVerified(PluginCall call) {
+        metrics.begin(call);
         int interval = call.getInt("interval", 1200);
         boolean beacons = call.getBoolean("beacons", false);
 
+        // options picked by hand replace the governor's
+        trackingGovernor.stop();
         Radar.startTrackingVerified(interval, beacons);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void startTrackingEfficient(PluginCall call) {
+        metrics.begin(call);
+        // options picked by hand replace the governor's
+        trackingGovernor.stop();
         Radar.startTracking(RadarTrackingOptions.EFFICIENT);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void startTrackingResponsive(PluginCall call) {
+        metrics.begin(call);
+        // options picked by hand replace the governor's
+        trackingGovernor.stop();
         Radar.startTracking(RadarTrackingOptions.RESPONSIVE);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void startTrackingContinuous(PluginCall call) {
+        metrics.begin(call);
+        // options picked by hand replace the governor's
+        trackingGovernor.stop();
         Radar.startTracking(RadarTrackingOptions.CONTINUOUS);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void startTrackingCustom(PluginCall call) {
+        metrics.begin(call);
         JSObject trackingOptionsObj = call.getObject("options");
 
         JSONObject trackingOptionsJson = RadarPlugin.jsonObjectForJSObject(trackingOptionsObj);
         RadarTrackingOptions trackingOptions = RadarTrackingOptions.fromJson(trackingOptionsJson);
+        // options picked by hand replace the governor's
+        trackingGovernor.stop();
         Radar.startTracking(trackingOptions);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void mockTracking(final PluginCall call) throws JSONException {
+        metrics.begin(call);
+        if (call.hasOption("path")) {
+            replayTrace(call);
+            return;
+        }
         if (!call.hasOption("origin")) {
-            call.reject("origin is required");
+            rejectCall(call, "origin is required");
 
             return;
         }
@@ -671,7 +1061,7 @@ public class RadarPlugin extends Plugin {
         origin.setAccuracy(5);
 
         if (!call.hasOption("destination")) {
-            call.reject("destination is required");
+            rejectCall(call, "destination is required");
 
             return;
         }
@@ -684,7 +1074,7 @@ public class RadarPlugin extends Plugin {
         destination.setAccuracy(5);
 
         if (!call.hasOption("mode")) {
-            call.reject("mode is required");
+            rejectCall(call, "mode is required");
 
             return;
         }
@@ -701,64 +1091,117 @@ public class RadarPlugin extends Plugin {
         int steps = call.getInt("steps", 10);
         int interval = call.getInt("interval", 1);
 
+        metrics.invoked(call);
         Radar.mockTracking(origin, destination, mode, steps, interval, new Radar.RadarTrackCallback() {
+            // called once per step; only the first one closes the SDK span
+            private boolean calledBack = false;
+
             @Override
             public void onComplete(@NotNull Radar.RadarStatus radarStatus, @Nullable Location location,
                 @Nullable RadarEvent[] radarEvents, @Nullable RadarUser radarUser
             ) {
+                if (!calledBack) {
+                    calledBack = true;
+                    metrics.callback(call);
+                }
             }
         });
 
-        call.resolve();
+        resolveCall(call);
+    }
+
+    private void replayTrace(final PluginCall call) {
+        String path = call.getString("path");
+        if (path.startsWith("file://")) {
+            path = Uri.parse(path).getPath();
+        }
+        File file = new File(path);
+        if (!file.isAbsolute()) {
+            file = new File(getContext().getFilesDir(), path);
+        }
+        if (!file.isFile()) {
+            rejectCall(call, "trace not found: " + file.getPath());
+            return;
+        }
+        String format = call.getString("format");
+        double speed = call.getDouble("speed", 1.0);
+        int interval = call.getInt("interval", 1000);
+
+        metrics.invoked(call);
+        boolean started = traceReplay.start(file, format, speed, interval, new RadarTraceReplay.Listener() {
+            @Override
+            public void onFinished(@Nullable JSObject result, @Nullable String error) {
+                metrics.callback(call);
+                if (result != null) {
+                    resolveCall(call, result);
+                } else {
+                    rejectCall(call, error);
+                }
+            }
+        });
+        if (!started) {
+            rejectCall(call, "replay already running");
+        }
     }
 
     @PluginMethod()
     public void stopTracking(PluginCall call) {
+        metrics.begin(call);
+        // otherwise the next rule change would restart tracking
+        trackingGovernor.stop();
+        // ends a mockTracking replay, which resolves with the fixes sent so far
+        traceReplay.stop();
         Radar.stopTracking();
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void stopTrackingVerified(PluginCall call) {
+        metrics.begin(call);
         Radar.stopTrackingVerified();
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void isTracking(PluginCall call) {
+        metrics.begin(call);
         JSObject ret = new JSObject();
         ret.put("isTracking", Radar.isTracking());
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void isTrackingVerified(PluginCall call) {
+        metrics.begin(call);
         JSObject ret = new JSObject();
         ret.put("isTrackingVerified", Radar.isTrackingVerified());
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void getTrackingOptions(PluginCall call) {
+        metrics.begin(call);
         RadarTrackingOptions options = Radar.getTrackingOptions();
-        call.resolve(RadarPlugin.jsObjectForJSONObject(options.toJson()));
+        resolveCall(call, RadarPlugin.jsObjectForJSONObject(options.toJson()));
     }
 
     @PluginMethod()
     public void setForegroundServiceOptions(PluginCall call) {
+        metrics.begin(call);
         JSObject optionsObj = call.getObject("options");
         JSONObject optionsJson = RadarPlugin.jsonObjectForJSObject(optionsObj);
         RadarTrackingOptionsForegroundService options = RadarTrackingOptionsForegroundService.fromJson(optionsJson);
         Radar.setForegroundServiceOptions(options);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void startTrip(PluginCall call) {
+        metrics.begin(call);
         JSObject optionsObj = call.getObject("options");
         JSONObject optionsJson = RadarPlugin.jsonObjectForJSObject(optionsObj);
         if (optionsJson == null) {
-            call.reject("options is required");
+            rejectCall(call, "options is required");
             return;
         }
         // new format is { tripOptions, trackingOptions }
@@ -774,32 +1217,40 @@ public class RadarPlugin extends Plugin {
         if (trackingOptionsJson != null) {
             trackingOptions = RadarTrackingOptions.fromJson(trackingOptionsJson);
         }
+        metrics.invoked(call);
         Radar.startTrip(options, trackingOptions, new Radar.RadarTripCallback() {
             @Override
             public void onComplete(@NonNull Radar.RadarStatus status,
                     @Nullable RadarTrip trip,
                     @Nullable RadarEvent[] events
                 ) {
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
 
-                JSObject ret = new JSObject();
-                ret.put("status", status.toString());
-                if (trip != null) {
-                    ret.put("trip", RadarPlugin.jsObjectForJSONObject(trip.toJson()));
-                }
-                if (events != null) {
-                    ret.put("events", RadarPlugin.jsArrayForArray(events));
-                }
-                call.resolve(ret);
+                        JSObject ret = new JSObject();
+                        ret.put("status", status.toString());
+                        if (trip != null) {
+                            RadarBridgeEncoder.putObject(ret, "trip", trip.toJson());
+                        }
+                        if (events != null) {
+                            ret.put("events", RadarPlugin.jsArrayForArray(events));
+                        }
+                        resolveCall(call, ret);
+                    }
+                });
             }
         });
     }
 
     @PluginMethod
     public void updateTrip(PluginCall call) {
+        metrics.begin(call);
         JSObject optionsObj = call.getObject("options");
         JSONObject optionsJson = RadarPlugin.jsonObjectForJSObject(optionsObj);
         if (optionsJson == null) {
-            call.reject("options is required");
+            rejectCall(call, "options is required");
             return;
         }
         RadarTripOptions options = RadarTripOptions.fromJson(optionsJson);
@@ -819,151 +1270,256 @@ public class RadarPlugin extends Plugin {
             }
         }
 
+        metrics.invoked(call);
         Radar.updateTrip(options, status, new Radar.RadarTripCallback() {
             @Override
             public void onComplete(@NonNull Radar.RadarStatus status,
                     @Nullable RadarTrip trip,
                     @Nullable RadarEvent[] events
                 ) {
-                JSObject ret = new JSObject();
-                ret.put("status", status.toString());
-                if (trip != null) {
-                    ret.put("trip", RadarPlugin.jsObjectForJSONObject(trip.toJson()));
-                }
-                if (events != null) {
-                    ret.put("events", RadarPlugin.jsArrayForArray(events));
-                }
-                call.resolve(ret);
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        JSObject ret = new JSObject();
+                        ret.put("status", status.toString());
+                        if (trip != null) {
+                            RadarBridgeEncoder.putObject(ret, "trip", trip.toJson());
+                        }
+                        if (events != null) {
+                            ret.put("events", RadarPlugin.jsArrayForArray(events));
+                        }
+                        resolveCall(call, ret);
+                    }
+                });
             }
         });
     }
 
     @PluginMethod()
     public void completeTrip(PluginCall call) {
+        metrics.begin(call);
+        metrics.invoked(call);
         Radar.completeTrip(new Radar.RadarTripCallback() {
             @Override
             public void onComplete(@NonNull Radar.RadarStatus status,
                     @Nullable RadarTrip trip,
                     @Nullable RadarEvent[] events
                 ) {
-                JSObject ret = new JSObject();
-                ret.put("status", status.toString());
-                if (trip != null) {
-                    ret.put("trip", RadarPlugin.jsObjectForJSONObject(trip.toJson()));
-                }
-                if (events != null) {
-                    ret.put("events", RadarPlugin.jsArrayForArray(events));
-                }
-                call.resolve(ret);
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        JSObject ret = new JSObject();
+                        ret.put("status", status.toString());
+                        if (trip != null) {
+                            RadarBridgeEncoder.putObject(ret, "trip", trip.toJson());
+                        }
+                        if (events != null) {
+                            ret.put("events", RadarPlugin.jsArrayForArray(events));
+                        }
+                        resolveCall(call, ret);
+                    }
+                });
             }
         });
     }
 
     @PluginMethod()
     public void cancelTrip(PluginCall call) {
+        metrics.begin(call);
+        metrics.invoked(call);
         Radar.cancelTrip(new Radar.RadarTripCallback() {
             @Override
             public void onComplete(@NonNull Radar.RadarStatus status,
                     @Nullable RadarTrip trip,
                     @Nullable RadarEvent[] events
                 ) {
-                JSObject ret = new JSObject();
-                ret.put("status", status.toString());
-                if (trip != null) {
-                    ret.put("trip", RadarPlugin.jsObjectForJSONObject(trip.toJson()));
-                }
-                if (events != null) {
-                    ret.put("events", RadarPlugin.jsArrayForArray(events));
-                }
-                call.resolve(ret);
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        JSObject ret = new JSObject();
+                        ret.put("status", status.toString());
+                        if (trip != null) {
+                            RadarBridgeEncoder.putObject(ret, "trip", trip.toJson());
+                        }
+                        if (events != null) {
+                            ret.put("events", RadarPlugin.jsArrayForArray(events));
+                        }
+                        resolveCall(call, ret);
+                    }
+                });
             }
         });
     }
 
     @PluginMethod()
     public void acceptEvent(PluginCall call) {
+        metrics.begin(call);
         String eventId = call.getString("eventId");
         String verifiedPlaceId = call.getString("verifiedPlaceId");
         Radar.acceptEvent(eventId, verifiedPlaceId);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void rejectEvent(PluginCall call) {
+        metrics.begin(call);
         String eventId = call.getString("eventId");
         Radar.rejectEvent(eventId);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void getTripOptions(PluginCall call) {
+        metrics.begin(call);
         RadarTripOptions options = Radar.getTripOptions();
         if (options != null) {
-            call.resolve(RadarPlugin.jsObjectForJSONObject(options.toJson()));
+            resolveCall(call, RadarPlugin.jsObjectForJSONObject(options.toJson()));
         } else {
-            call.reject("No trip options available");
+            rejectCall(call, "No trip options available");
         }
     }
 
     @PluginMethod()
     public void getContext(final PluginCall call) {
-        Radar.RadarContextCallback callback = new Radar.RadarContextCallback() {
-            @Override
-            public void onComplete(@NotNull Radar.RadarStatus status, @Nullable Location location,
-                @Nullable RadarContext context
-            ) {
-                if (status == Radar.RadarStatus.SUCCESS && location != null && context != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("location", RadarPlugin.jsObjectForJSONObject(Radar.jsonForLocation(location)));
-                    ret.put("context", RadarPlugin.jsObjectForJSONObject(context.toJson()));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
-            }
-        };
-
+        metrics.begin(call);
+        Location location = null;
         if (call.hasOption("latitude") && call.hasOption("longitude")) {
             double latitude = call.getDouble("latitude");
             double longitude = call.getDouble("longitude");
-            Location location = new Location("RadarSDK");
+            location = new Location("RadarSDK");
             location.setLatitude(latitude);
             location.setLongitude(longitude);
             location.setAccuracy(5);
+        }
 
-            Radar.getContext(location, callback);
-        } else {
-            Radar.getContext(callback);
+        Location keyLocation = location;
+        if (keyLocation == null && contextCache.isEnabled()) {
+            keyLocation = contextCache.currentLocation();
+        }
+        if (keyLocation != null && contextCache.isEnabled()) {
+            String cacheKey = contextCache.key(keyLocation.getLatitude(), keyLocation.getLongitude());
+            RadarResponseCache.Lookup lookup = contextCache.lookup(cacheKey);
+            if (lookup != null) {
+                JSObject ret = new JSObject();
+                ret.put("status", lookup.value.getString("status"));
+                ret.put("location", lookup.value.opt("location"));
+                ret.put("context", lookup.value.opt("context"));
+                ret.put("stale", lookup.stale);
+                resolveCall(call, ret);
+                if (lookup.stale && contextCache.beginRefresh(cacheKey)) {
+                    refreshContext(cacheKey, keyLocation);
+                }
+                return;
+            }
         }
-    }
 
-    @PluginMethod()
-    public void searchPlaces(final PluginCall call) throws JSONException {
-        Radar.RadarSearchPlacesCallback callback = new Radar.RadarSearchPlacesCallback() {
+        final boolean hasCoordinates = location != null;
+        Radar.RadarContextCallback callback = new Radar.RadarContextCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable Location location,
-                    @Nullable RadarPlace[] places
-                ) {
-                if (status == Radar.RadarStatus.SUCCESS && location != null && places != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("location", RadarPlugin.jsObjectForJSONObject(Radar.jsonForLocation(location)));
-                    ret.put("places", RadarPlugin.jsArrayForJSONArray(RadarPlace.toJson(places)));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                @Nullable RadarContext context
+            ) {
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && location != null && context != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putLocation(ret, "location", location);
+                            RadarBridgeEncoder.putObject(ret, "context", context.toJson());
+                            if (contextCache.isEnabled()) {
+                                if (!hasCoordinates) {
+                                    contextCache.onLocation(location);
+                                }
+                                contextCache.put(contextCache.key(location.getLatitude(), location.getLongitude()), ret);
+                            }
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
             }
         };
 
-        int radius = call.getInt("radius", 1000);
+        if (hasCoordinates) {
+            metrics.invoked(call);
+            Radar.getContext(location, callback);
+        } else {
+            metrics.invoked(call);
+            Radar.getContext(callback);
+        }
+    }
+
+    private void refreshContext(final String cacheKey, Location location) {
+        Radar.getContext(location, new Radar.RadarContextCallback() {
+            @Override
+            public void onComplete(@NotNull Radar.RadarStatus status, @Nullable Location location,
+                @Nullable RadarContext context
+            ) {
+                contextCache.endRefresh(cacheKey);
+                if (status != Radar.RadarStatus.SUCCESS || location == null || context == null) {
+                    return;
+                }
+
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        JSObject ret = new JSObject();
+                        ret.put("status", status.toString());
+                        RadarBridgeEncoder.putLocation(ret, "location", location);
+                        RadarBridgeEncoder.putObject(ret, "context", context.toJson());
+                        contextCache.put(cacheKey, ret);
+                        notifyListeners("contextUpdated", ret);
+                    }
+                });
+            }
+        });
+    }
+
+    @PluginMethod()
+    public void searchPlaces(final PluginCall call) throws JSONException {
+        metrics.begin(call);
+        final int radius = call.getInt("radius", 1000);
         String[] chains = RadarPlugin.stringArrayForJSArray(call.getArray("chains"));
         Map<String, String> chainMetadata = RadarPlugin.stringMapForJSObject(call.getObject("chainMetadata"));
         String[] categories = RadarPlugin.stringArrayForJSArray(call.getArray("categories"));
         String[] groups = RadarPlugin.stringArrayForJSArray(call.getArray("groups"));
         String[] countryCodes = RadarPlugin.stringArrayForJSArray(call.getArray("countryCodes"));
-        int limit = call.getInt("limit", 10);
+        final int limit = call.getInt("limit", 10);
+        final String signature = RadarSearchCache.placesSignature(chains, chainMetadata, categories, groups, countryCodes);
+
+        Radar.RadarSearchPlacesCallback callback = new Radar.RadarSearchPlacesCallback() {
+            @Override
+            public void onComplete(@NotNull Radar.RadarStatus status, @Nullable Location location,
+                    @Nullable RadarPlace[] places
+                ) {
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && location != null && places != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putLocation(ret, "location", location);
+                            JSONArray placesArr = RadarPlace.toJson(places);
+                            RadarBridgeEncoder.putArray(ret, "places", placesArr);
+                            if (searchCache.isEnabled()) {
+                                searchCache.put(signature, location.getLatitude(), location.getLongitude(), radius, limit,
+                                    placesArr, "location");
+                            }
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
+            }
+        };
 
         if (call.hasOption("near")) {
             JSObject nearObj = call.getObject("near");
@@ -974,37 +1530,58 @@ public class RadarPlugin extends Plugin {
             near.setLongitude(longitude);
             near.setAccuracy(5);
 
+            if (resolveCachedSearch(call, signature, near, radius, limit, "places")) {
+                return;
+            }
+            metrics.invoked(call);
             Radar.searchPlaces(near, radius, chains, chainMetadata, categories, groups, countryCodes, limit, callback);
         } else {
+            metrics.invoked(call);
             Radar.searchPlaces(radius, chains, chainMetadata, categories, groups, countryCodes, limit, callback);
         }
     }
 
     @PluginMethod()
     public void searchGeofences(final PluginCall call) throws JSONException {
+        metrics.begin(call);
+        final int radius = call.getInt("radius", 1000);
+        String[] tags = RadarPlugin.stringArrayForJSArray(call.getArray("tags"));
+        JSONObject metadata = RadarPlugin.jsonObjectForJSObject(call.getObject("metadata"));
+        final int limit = call.getInt("limit", 10);
+        boolean includeGeometry = call.getBoolean("includeGeometry", false);
+        final String signature = RadarSearchCache.geofencesSignature(tags, metadata, includeGeometry);
+
         Radar.RadarSearchGeofencesCallback callback = new Radar.RadarSearchGeofencesCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable Location location,
                     @Nullable RadarGeofence[] geofences
                 ) {
-                if (status == Radar.RadarStatus.SUCCESS && location != null && geofences != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("location", RadarPlugin.jsObjectForJSONObject(Radar.jsonForLocation(location)));
-                    ret.put("geofences", RadarPlugin.jsArrayForJSONArray(RadarGeofence.toJson(geofences)));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && location != null && geofences != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putLocation(ret, "location", location);
+                            JSONArray geofencesArr = RadarGeofence.toJson(geofences);
+                            RadarBridgeEncoder.putArray(ret, "geofences", geofencesArr);
+                            if (searchCache.isEnabled()) {
+                                searchCache.put(signature, location.getLatitude(), location.getLongitude(), radius, limit,
+                                    geofencesArr, "geometryCenter");
+                            }
+                            if (geofenceIndex.isEnabled()) {
+                                geofenceIndex.addAll(geofencesArr);
+                            }
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
             }
         };
 
-        int radius = call.getInt("radius", 1000);
-        String[] tags = RadarPlugin.stringArrayForJSArray(call.getArray("tags"));
-        JSONObject metadata = RadarPlugin.jsonObjectForJSObject(call.getObject("metadata"));
-        int limit = call.getInt("limit", 10);
-        boolean includeGeometry = call.getBoolean("includeGeometry", false);
-
         if (call.hasOption("near")) {
             JSObject nearObj = call.getObject("near");
             double latitude = nearObj.getDouble("latitude");
@@ -1014,23 +1591,48 @@ public class RadarPlugin extends Plugin {
             near.setLongitude(longitude);
             near.setAccuracy(5);
 
+            if (resolveCachedSearch(call, signature, near, radius, limit, "geofences")) {
+                return;
+            }
+            metrics.invoked(call);
             Radar.searchGeofences(near, radius, tags, metadata, limit, includeGeometry, callback);
         } else {
+            metrics.invoked(call);
             Radar.searchGeofences(radius, tags, metadata, limit, includeGeometry, callback);
         }
     }
 
+    private boolean resolveCachedSearch(PluginCall call, String signature, Location near, int radius, int limit,
+            String key) {
+        if (!searchCache.isEnabled()) {
+            return false;
+        }
+        JSONArray items = searchCache.query(signature, near.getLatitude(), near.getLongitude(), radius, limit);
+        if (items == null) {
+            return false;
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("status", Radar.RadarStatus.SUCCESS.toString());
+        RadarBridgeEncoder.putLocation(ret, "location", near);
+        RadarBridgeEncoder.putArray(ret, key, items);
+        ret.put("cached", true);
+        resolveCall(call, ret);
+        return true;
+    }
+
     @PluginMethod()
     public void autocomplete(final PluginCall call) throws JSONException {
+        metrics.begin(call);
         if (!call.hasOption("query")) {
-            call.reject("query is required");
+            rejectCall(call, "query is required");
 
             return;
         }
         String query = call.getString("query");
 
         if (!call.hasOption("near")) {
-            call.reject("near is required");
+            rejectCall(call, "near is required");
 
             return;
         }
@@ -1048,53 +1650,89 @@ public class RadarPlugin extends Plugin {
         boolean expandUnits = call.getBoolean("expandUnits", false);
         boolean mailable = call.getBoolean("mailable", false);
 
+        String sessionId = call.getString("sessionId");
+        if (sessionId != null) {
+            int debounce = call.getInt("debounce", 150);
+            autocompletePipeline.submit(sessionId, call, new RadarAutocompletePipeline.Request(query, near, layers, limit,
+                country, expandUnits, mailable), debounce);
+            return;
+        }
+
+        metrics.invoked(call);
         Radar.autocomplete(query, near, layers, limit, country, expandUnits, mailable,
                 new Radar.RadarGeocodeCallback() {
                     @Override
                     public void onComplete(@NotNull Radar.RadarStatus status, @Nullable RadarAddress[] addresses) {
-                        if (status == Radar.RadarStatus.SUCCESS && addresses != null) {
-                            JSObject ret = new JSObject();
-                            ret.put("status", status.toString());
-                            ret.put("addresses", RadarPlugin.jsArrayForJSONArray(RadarAddress.toJson(addresses)));
-                            call.resolve(ret);
-                        } else {
-                            call.reject(status.toString());
-                        }
+                        metrics.callback(call);
+                        serializer.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (status == Radar.RadarStatus.SUCCESS && addresses != null) {
+                                    JSObject ret = new JSObject();
+                                    ret.put("status", status.toString());
+                                    RadarBridgeEncoder.putArray(ret, "addresses", RadarAddress.toJson(addresses));
+                                    resolveCall(call, ret);
+                                } else {
+                                    rejectCall(call, status.toString());
+                                }
+                            }
+                        });
                     }
                 });
     }
 
+    @PluginMethod()
+    public void cancelAutocomplete(PluginCall call) {
+        metrics.begin(call);
+        String sessionId = call.getString("sessionId");
+        if (sessionId == null) {
+            rejectCall(call, "sessionId is required");
+            return;
+        }
+        autocompletePipeline.cancel(sessionId);
+        resolveCall(call);
+    }
+
     @PluginMethod()
     public void validateAddress(final PluginCall call) throws JSONException {
+        metrics.begin(call);
         if (!call.hasOption("address")) {
-            call.reject("address is required");
+            rejectCall(call, "address is required");
 
             return;
         }
         RadarAddress address = RadarAddress.fromJson(call.getObject("address"));
 
+        metrics.invoked(call);
         Radar.validateAddress(address, new Radar.RadarValidateAddressCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable RadarAddress address,
                     @Nullable RadarAddressVerificationStatus verificationStatus
                 ) {
-                if (status == Radar.RadarStatus.SUCCESS && address != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("address", RadarPlugin.jsObjectForJSONObject(address.toJson()));
-                    ret.put("verificationStatus", Radar.stringForVerificationStatus(verificationStatus));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && address != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putObject(ret, "address", address.toJson());
+                            ret.put("verificationStatus", Radar.stringForVerificationStatus(verificationStatus));
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
             }
         });
     }
 
     @PluginMethod()
     public void geocode(final PluginCall call) throws JSONException {
+        metrics.begin(call);
         if (!call.hasOption("query")) {
-            call.reject("query is required");
+            rejectCall(call, "query is required");
 
             return;
         }
@@ -1102,39 +1740,195 @@ public class RadarPlugin extends Plugin {
         String[] layers = RadarPlugin.stringArrayForJSArray(call.getArray("layers"));
         String[] countries = RadarPlugin.stringArrayForJSArray(call.getArray("countries"));
 
+        final String cacheKey = geocodeCache.isEnabled() ? geocodeCache.geocodeKey(query, layers, countries) : null;
+        if (cacheKey != null) {
+            JSObject cached = geocodeCache.get(cacheKey);
+            if (cached != null) {
+                resolveCall(call, cached);
+                return;
+            }
+        }
+
+        metrics.invoked(call);
         Radar.geocode(query, layers, countries, new Radar.RadarGeocodeCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable RadarAddress[] addresses) {
-                if (status == Radar.RadarStatus.SUCCESS && addresses != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("addresses", RadarPlugin.jsArrayForJSONArray(RadarAddress.toJson(addresses)));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && addresses != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putArray(ret, "addresses", RadarAddress.toJson(addresses));
+                            if (cacheKey != null) {
+                                geocodeCache.putGeocode(cacheKey, ret);
+                            }
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
             }
         });
     }
 
+    @PluginMethod()
+    public void geocodeBatch(final PluginCall call) throws JSONException {
+        metrics.begin(call);
+        JSArray queries = call.getArray("queries");
+        if (queries == null) {
+            rejectCall(call, "queries is required");
+            return;
+        }
+        final String[] layers = RadarPlugin.stringArrayForJSArray(call.getArray("layers"));
+        final String[] countries = RadarPlugin.stringArrayForJSArray(call.getArray("countries"));
+        int concurrency = call.getInt("concurrency", 4);
+        String batchId = call.getString("batchId", UUID.randomUUID().toString());
+
+        RadarBatchGeocoder batch = new RadarBatchGeocoder(batchId, call, batchGeocodeListener(), geocodeCache, serializer,
+            metrics, concurrency);
+        for (int i = 0; i < queries.length(); i++) {
+            final String query = queries.getString(i);
+            final String key = geocodeCache.geocodeKey(query, layers, countries);
+            batch.add(new RadarBatchGeocoder.Request() {
+                @Override
+                public String key() {
+                    return key;
+                }
+
+                @Override
+                public String cacheKey() {
+                    return key;
+                }
+
+                @Override
+                public Object input() {
+                    return query;
+                }
+
+                @Override
+                public void send(Radar.RadarGeocodeCallback callback) {
+                    Radar.geocode(query, layers, countries, callback);
+                }
+
+                @Override
+                public void cache(JSObject result) {
+                    geocodeCache.putGeocode(key, result);
+                }
+            });
+        }
+        batch.start();
+    }
+
+    @PluginMethod()
+    public void reverseGeocodeBatch(final PluginCall call) throws JSONException {
+        metrics.begin(call);
+        JSArray locations = call.getArray("locations");
+        if (locations == null) {
+            rejectCall(call, "locations is required");
+            return;
+        }
+        final String[] layers = RadarPlugin.stringArrayForJSArray(call.getArray("layers"));
+        int concurrency = call.getInt("concurrency", 4);
+        String batchId = call.getString("batchId", UUID.randomUUID().toString());
+
+        RadarBatchGeocoder batch = new RadarBatchGeocoder(batchId, call, batchGeocodeListener(), geocodeCache, serializer,
+            metrics, concurrency);
+        for (int i = 0; i < locations.length(); i++) {
+            JSONObject locationObj = locations.getJSONObject(i);
+            double latitude = locationObj.getDouble("latitude");
+            double longitude = locationObj.getDouble("longitude");
+            final Location location = new Location("RadarSDK");
+            location.setLatitude(latitude);
+            location.setLongitude(longitude);
+            location.setAccuracy(5);
+
+            final JSObject input = new JSObject();
+            input.put("latitude", latitude);
+            input.put("longitude", longitude);
+            final String key = latitude + "," + longitude + "|" + RadarGeocodeCache.join(layers);
+            final String cacheKey = geocodeCache.reverseGeocodeKey(latitude, longitude, layers);
+            batch.add(new RadarBatchGeocoder.Request() {
+                @Override
+                public String key() {
+                    return key;
+                }
+
+                @Override
+                public String cacheKey() {
+                    return cacheKey;
+                }
+
+                @Override
+                public Object input() {
+                    return input;
+                }
+
+                @Override
+                public void send(Radar.RadarGeocodeCallback callback) {
+                    Radar.reverseGeocode(location, layers, callback);
+                }
+
+                @Override
+                public void cache(JSObject result) {
+                    geocodeCache.putReverseGeocode(cacheKey, result);
+                }
+            });
+        }
+        batch.start();
+    }
+
+    private RadarBatchGeocoder.Listener batchGeocodeListener() {
+        return new RadarBatchGeocoder.Listener() {
+            @Override
+            public void onResult(JSObject result) {
+                dispatcher.dispatch("geocodeBatchResult", result);
+            }
+        };
+    }
+
     @PluginMethod()
     public void reverseGeocode(final PluginCall call) throws JSONException {
+        metrics.begin(call);
+        String[] layers = RadarPlugin.stringArrayForJSArray(call.getArray("layers"));
+
+        String key = null;
+        if (geocodeCache.isEnabled() && call.hasOption("location")) {
+            JSObject locationObj = call.getObject("location");
+            key = geocodeCache.reverseGeocodeKey(locationObj.getDouble("latitude"), locationObj.getDouble("longitude"), layers);
+            JSObject cached = geocodeCache.get(key);
+            if (cached != null) {
+                resolveCall(call, cached);
+                return;
+            }
+        }
+        final String cacheKey = key;
+
         Radar.RadarGeocodeCallback callback = new Radar.RadarGeocodeCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable RadarAddress[] addresses) {
-                if (status == Radar.RadarStatus.SUCCESS && addresses != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("addresses", RadarPlugin.jsArrayForJSONArray(RadarAddress.toJson(addresses)));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && addresses != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putArray(ret, "addresses", RadarAddress.toJson(addresses));
+                            if (cacheKey != null) {
+                                geocodeCache.putReverseGeocode(cacheKey, ret);
+                            }
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
             }
         };
 
-        String[] layers = RadarPlugin.stringArrayForJSArray(call.getArray("layers"));
-
         if (call.hasOption("location")) {
             JSObject locationObj = call.getObject("location");
             double latitude = locationObj.getDouble("latitude");
@@ -1144,48 +1938,81 @@ public class RadarPlugin extends Plugin {
             location.setLongitude(longitude);
             location.setAccuracy(5);
 
+            metrics.invoked(call);
             Radar.reverseGeocode(location, layers, callback);
         } else {
+            metrics.invoked(call);
             Radar.reverseGeocode(layers, callback);
         }
     }
 
     @PluginMethod()
     public void ipGeocode(final PluginCall call) throws JSONException {
+        metrics.begin(call);
+        final boolean useCache = geocodeCache.isEnabled();
+        if (useCache) {
+            JSObject cached = geocodeCache.get(RadarGeocodeCache.IP_GEOCODE_KEY);
+            if (cached != null) {
+                resolveCall(call, cached);
+                return;
+            }
+        }
+
+        metrics.invoked(call);
         Radar.ipGeocode(new Radar.RadarIpGeocodeCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable RadarAddress address, boolean proxy) {
-                if (status == Radar.RadarStatus.SUCCESS && address != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("address", RadarPlugin.jsObjectForJSONObject(address.toJson()));
-                    ret.put("proxy", proxy);
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && address != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            RadarBridgeEncoder.putObject(ret, "address", address.toJson());
+                            ret.put("proxy", proxy);
+                            if (useCache) {
+                                geocodeCache.putIpGeocode(ret);
+                            }
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
             }
         });
     }
 
     @PluginMethod()
     public void getDistance(final PluginCall call) throws JSONException {
+        metrics.begin(call);
         Radar.RadarRouteCallback callback = new Radar.RadarRouteCallback() {
             @Override
             public void onComplete(@NotNull Radar.RadarStatus status, @Nullable RadarRoutes routes) {
-                if (status == Radar.RadarStatus.SUCCESS && routes != null) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    ret.put("points", RadarPlugin.jsObjectForJSONObject(routes.toJson()));
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS && routes != null) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            if (RadarPackedEncoder.FORMAT.equals(call.getString("format"))) {
+                                RadarPackedEncoder.putRoutes(ret, routes.toJson());
+                            } else {
+                                RadarBridgeEncoder.putObject(ret, "points", routes.toJson());
+                            }
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
+                    }
+                });
             }
         };
 
         if (!call.hasOption("destination")) {
-            call.reject("destination is required");
+            rejectCall(call, "destination is required");
 
             return;
         }
@@ -1198,7 +2025,7 @@ public class RadarPlugin extends Plugin {
         destination.setAccuracy(5);
 
         if (!call.hasOption("modes")) {
-            call.reject("modes is required");
+            rejectCall(call, "modes is required");
 
             return;
         }
@@ -1215,7 +2042,7 @@ public class RadarPlugin extends Plugin {
         }
 
         if (!call.hasOption("units")) {
-            call.reject("units is required");
+            rejectCall(call, "units is required");
 
             return;
         }
@@ -1233,14 +2060,17 @@ public class RadarPlugin extends Plugin {
             origin.setLatitude(originLatitude);
             origin.setLongitude(originLongitude);
 
+            metrics.invoked(call);
             Radar.getDistance(origin, destination, modes, units, callback);
         } else {
+            metrics.invoked(call);
             Radar.getDistance(destination, modes, units, callback);
         }
     }
 
     @PluginMethod
     public void getMatrix(final PluginCall call) throws JSONException {
+        metrics.begin(call);
         JSArray originsArr = call.getArray("origins");
         Location[] origins = new Location[originsArr.length()];
         for (int i = 0; i < originsArr.length(); i++) {
@@ -1266,7 +2096,7 @@ public class RadarPlugin extends Plugin {
         String modeStr = call.getString("mode");
         Radar.RadarRouteMode mode = Radar.RadarRouteMode.CAR;
         if (modeStr == null) {
-            call.reject("mode is required");
+            rejectCall(call, "mode is required");
             return;
         }
         modeStr = modeStr.toLowerCase();
@@ -1281,7 +2111,7 @@ public class RadarPlugin extends Plugin {
         } else if (modeStr.equals("motorbike")) {
             mode = Radar.RadarRouteMode.MOTORBIKE;
         } else {
-            call.reject("invalid mode: " + mode);
+            rejectCall(call, "invalid mode: " + mode);
             return;
         }
 
@@ -1290,27 +2120,47 @@ public class RadarPlugin extends Plugin {
             ? Radar.RadarRouteUnits.METRIC
             : Radar.RadarRouteUnits.IMPERIAL;
 
+        if (call.getBoolean("tiled", false)) {
+            int tileSize = call.getInt("tileSize", 25);
+            new RadarMatrixTiler(call, origins, destinations, mode, units, tileSize, tileSize,
+                call.getInt("concurrency", 4), call.getInt("precision", 8), matrixCache,
+                call.getInt("cacheTtl", 600000), serializer, metrics).start();
+            return;
+        }
+
+        metrics.invoked(call);
         Radar.getMatrix(origins, destinations, mode, units, new Radar.RadarMatrixCallback() {
             @Override
             public void onComplete(@NonNull Radar.RadarStatus status, @Nullable RadarRouteMatrix matrix) {
-                if (status == Radar.RadarStatus.SUCCESS) {
-                    JSObject ret = new JSObject();
-                    ret.put("status", status.toString());
-                    if (matrix != null) {
-                        ret.put("matrix", matrix.toJson());
+                metrics.callback(call);
+                serializer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (status == Radar.RadarStatus.SUCCESS) {
+                            JSObject ret = new JSObject();
+                            ret.put("status", status.toString());
+                            if (matrix != null) {
+                                if (RadarPackedEncoder.FORMAT.equals(call.getString("format"))) {
+                                    RadarPackedEncoder.putMatrix(ret, matrix.toJson());
+                                } else {
+                                    ret.put("matrix", matrix.toJson());
+                                }
+                            }
+                            resolveCall(call, ret);
+                        } else {
+                            rejectCall(call, status.toString());
+                        }
                     }
-                    call.resolve(ret);
-                } else {
-                    call.reject(status.toString());
-                }
+                });
             }
         });
     }
 
     @PluginMethod()
     public void logConversion(final PluginCall call) throws JSONException {
+        metrics.begin(call);
         if (!call.hasOption("name")) {
-            call.reject("name is required");
+            rejectCall(call, "name is required");
 
             return;
         }
@@ -1323,42 +2173,63 @@ public class RadarPlugin extends Plugin {
         JSObject metadataObj = call.getObject("metadata");
         JSONObject metadataJson = RadarPlugin.jsonObjectForJSObject(metadataObj);
 
+        if (conversionOutbox != null && conversionOutbox.isEnabled()) {
+            conversionOutbox.enqueue(name, revenue, metadataJson, call);
+            return;
+        }
+
         if (revenue > 0) {
+            metrics.invoked(call);
             Radar.logConversion(name, revenue, metadataJson, new Radar.RadarLogConversionCallback() {
                 @Override
                 public void onComplete(@NonNull Radar.RadarStatus status, @Nullable RadarEvent event) {
-                    if (status == Radar.RadarStatus.SUCCESS) {
-                        JSObject ret = new JSObject();
-                        ret.put("status", status.toString());
-                        if (event != null) {
-                            ret.put("event", event.toJson());
+                    metrics.callback(call);
+                    serializer.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (status == Radar.RadarStatus.SUCCESS) {
+                                JSObject ret = new JSObject();
+                                ret.put("status", status.toString());
+                                if (event != null) {
+                                    ret.put("event", event.toJson());
+                                }
+                                resolveCall(call, ret);
+                            } else {
+                                rejectCall(call, status.toString());
+                            }
                         }
-                        call.resolve(ret);
-                    } else {
-                        call.reject(status.toString());
-                    }
+                    });
                 }
             });
         } else {
+            metrics.invoked(call);
             Radar.logConversion(name, metadataJson, new Radar.RadarLogConversionCallback() {
                 @Override
                 public void onComplete(@NonNull Radar.RadarStatus status, @Nullable RadarEvent event) {
-                    if (status == Radar.RadarStatus.SUCCESS) {
-                        JSObject ret = new JSObject();
-                        ret.put("status", status.toString());
-                        if (event != null) {
-                            ret.put("event", event.toJson());
+                    metrics.callback(call);
+                    serializer.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (status == Radar.RadarStatus.SUCCESS) {
+                                JSObject ret = new JSObject();
+                                ret.put("status", status.toString());
+                                if (event != null) {
+                                    ret.put("event", event.toJson());
+                                }
+                                resolveCall(call, ret);
+                            } else {
+                                rejectCall(call, status.toString());
+                            }
                         }
-                        call.resolve(ret);
-                    } else {
-                        call.reject(status.toString());
-                    }
+                    });
                 }
             });
         }
     }
 
-    private static JSObject jsObjectForJSONObject(JSONObject jsonObj) {
+    static JSObject jsObjectForJSONObject(JSONObject jsonObj) {
+        RadarSerializer.assertNotMainThread("jsObjectForJSONObject");
+        boolean traced = RadarTrace.begin("Radar.jsObjectForJSONObject");
         try {
             if (jsonObj == null) {
                 return null;
@@ -1375,10 +2246,13 @@ public class RadarPlugin extends Plugin {
             return obj;
         } catch (JSONException j) {
             return null;
+        } finally {
+            RadarTrace.end(traced);
         }
     }
 
-    private static JSONObject jsonObjectForJSObject(JSObject jsObj) {
+    static JSONObject jsonObjectForJSObject(JSObject jsObj) {
+        boolean traced = RadarTrace.begin("Radar.jsonObjectForJSObject");
         try {
             if (jsObj == null) {
                 return null;
@@ -1395,10 +2269,14 @@ public class RadarPlugin extends Plugin {
             return obj;
         } catch (JSONException j) {
             return null;
+        } finally {
+            RadarTrace.end(traced);
         }
     }
 
-    private static JSArray jsArrayForJSONArray(JSONArray jsonArr) {
+    static JSArray jsArrayForJSONArray(JSONArray jsonArr) {
+        RadarSerializer.assertNotMainThread("jsArrayForJSONArray");
+        boolean traced = RadarTrace.begin("Radar.jsArrayForJSONArray");
         try {
             if (jsonArr == null) {
                 return null;
@@ -1411,14 +2289,16 @@ public class RadarPlugin extends Plugin {
             return arr;
         } catch (JSONException j) {
             return null;
+        } finally {
+            RadarTrace.end(traced);
         }
     }
 
-    private static JSArray jsArrayForArray(Object[] array) {
+    static JSArray jsArrayForArray(Object[] array) {
         return jsArrayForJSONArray(new JSONArray(Arrays.asList(array)));
     }
 
-    private static String[] stringArrayForJSArray(JSArray jsArr) {
+    static String[] stringArrayForJSArray(JSArray jsArr) {
         try {
             if (jsArr == null) {
                 return null;
@@ -1434,7 +2314,7 @@ public class RadarPlugin extends Plugin {
         }
     }
 
-    private static Map<String, String> stringMapForJSObject(JSObject jsObj) {
+    static Map<String, String> stringMapForJSObject(JSObject jsObj) {
         try {
             if (jsObj == null) {
                 return null;
@@ -1456,119 +2336,144 @@ public class RadarPlugin extends Plugin {
 
     @PluginMethod()
     public void logTermination(final PluginCall call) {
+        metrics.begin(call);
         // not implemented
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void logBackgrounding(final PluginCall call) {
+        metrics.begin(call);
+        // after any receiver work already queued, on the thread that owns the batcher's listener state
+        serializer.execute(new Runnable() {
+            @Override
+            public void run() {
+                eventsBatcher.flush();
+            }
+        });
         Radar.logBackgrounding();
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void logResigningActive(final PluginCall call) {
+        metrics.begin(call);
         Radar.logResigningActive();
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void setNotificationOptions(final PluginCall call) {
+        metrics.begin(call);
         JSObject notificationOptionsObj = call.getObject("options");
 
         JSONObject notificationOptionsJson = RadarPlugin.jsonObjectForJSObject(notificationOptionsObj);
         RadarNotificationOptions notificationOptions = RadarNotificationOptions.fromJson(notificationOptionsJson);
         Radar.setNotificationOptions(notificationOptions);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void isUsingRemoteTrackingOptions(final PluginCall call) {
+        metrics.begin(call);
         JSObject ret = new JSObject();
         ret.put("isUsingRemoteTrackingOptions", Radar.isUsingRemoteTrackingOptions());
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void getHost(final PluginCall call) {
+        metrics.begin(call);
         JSObject ret = new JSObject();
         ret.put("host", Radar.getHost());
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void getPublishableKey(final PluginCall call) {
+        metrics.begin(call);
         JSObject ret = new JSObject();
         ret.put("publishableKey", Radar.getPublishableKey());
-        call.resolve(ret);
+        resolveCall(call, ret);
     }
 
     @PluginMethod()
     public void initializeWithAppGroup(PluginCall call) {
+        metrics.begin(call);
         // App groups are iOS-specific, not applicable on Android
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void nativeSetup(PluginCall call) {
+        metrics.begin(call);
         // Native setup is iOS-specific, not applicable on Android
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void requestMotionActivityPermission(PluginCall call) {
+        metrics.begin(call);
         // Motion activity permissions are iOS-specific, not applicable on Android
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void setAppGroup(PluginCall call) {
+        metrics.begin(call);
         // App groups are iOS-specific, not applicable on Android
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void setPushNotificationToken(PluginCall call) {
+        metrics.begin(call);
         String token = call.getString("token");
         Radar.setPushNotificationToken(token);
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void setLocationExtensionToken(PluginCall call) {
+        metrics.begin(call);
         // Not implemented on Android - extension tokens are iOS-specific
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void didReceivePushNotificationPayload(PluginCall call) {
+        metrics.begin(call);
         // Not implemented on Android - handled through Firebase
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void clearVerifiedLocationToken(PluginCall call) {
+        metrics.begin(call);
         Radar.clearVerifiedLocationToken();
-        call.resolve();
+        resolveCall(call);
     }
 
     @PluginMethod()
     public void startIndoorScan(PluginCall call) {
+        metrics.begin(call);
         // Indoor scanning not available on Android yet
-        call.reject("Indoor scanning not supported on Android");
+        rejectCall(call, "Indoor scanning not supported on Android");
     }
 
     @PluginMethod()
     public void stringForActivityType(PluginCall call) {
+        metrics.begin(call);
         // Activity type string conversion not needed on Android
-        call.resolve(new JSObject().put("activityType", "unknown"));
+        resolveCall(call, new JSObject().put("activityType", "unknown"));
     }
 
     @PluginMethod()
     public void showInAppMessage(PluginCall call) {
+        metrics.begin(call);
         JSObject messageObj = call.getObject("message");
         if (messageObj == null) {
-            call.reject("message is required");
+            rejectCall(call, "message is required");
             return;
         }
 
@@ -1577,48 +2482,520 @@ public class RadarPlugin extends Plugin {
             // fromJson() takes a String parameter
             RadarInAppMessage inAppMessage = RadarInAppMessage.fromJson(messageJson.toString());
             if (inAppMessage == null) {
-                call.reject("Invalid in-app message format");
+                rejectCall(call, "Invalid in-app message format");
                 return;
             }
             Radar.showInAppMessage(inAppMessage);
-            call.resolve();
+            resolveCall(call);
         } catch (Exception e) {
             Log.e(TAG, "Exception showing in-app message", e);
-            call.reject("Failed to show in-app message");
+            rejectCall(call, "Failed to show in-app message");
         }
     }
 
     @PluginMethod()
-    public void loadImage(PluginCall call) {
+    public void loadImage(final PluginCall call) {
+        metrics.begin(call);
         String url = call.getString("url");
         if (url == null) {
-            call.reject("url is required");
+            rejectCall(call, "url is required");
             return;
         }
+        final boolean fileMode = "file".equals(call.getString("mode"));
+        int maxWidth = call.getInt("maxWidth", 0);
+        int maxHeight = call.getInt("maxHeight", 0);
 
-        Radar.loadImage(url, new Function1<android.graphics.Bitmap, Unit>() {
+        metrics.invoked(call);
+        imageCache.load(url, fileMode, maxWidth, maxHeight, new RadarImageCache.Callback() {
             @Override
-            public Unit invoke(android.graphics.Bitmap bitmap) {
-                if (bitmap != null) {
-                    try {
-                        // Convert bitmap to base64 for consistency with iOS
-                        java.io.ByteArrayOutputStream byteArrayOutputStream = new java.io.ByteArrayOutputStream();
-                        bitmap.compress(android.graphics.Bitmap.CompressFormat.PNG, 100, byteArrayOutputStream);
-                        byte[] byteArray = byteArrayOutputStream.toByteArray();
-                        String base64Image = android.util.Base64.encodeToString(byteArray, android.util.Base64.DEFAULT);
-
-                        JSObject ret = new JSObject();
-                        ret.put("image", base64Image);
-                        call.resolve(ret);
-                    } catch (Exception e) {
-                        Log.e(TAG, "Exception converting image", e);
-                        call.reject("Failed to convert image");
-                    }
+            public void onResult(@Nullable String value, @Nullable String error) {
+                metrics.callback(call);
+                if (value == null) {
+                    rejectCall(call, error);
+                    return;
+                }
+                JSObject ret = new JSObject();
+                if (fileMode) {
+                    Uri uri = Uri.fromFile(new File(value));
+                    ret.put("path", value);
+                    ret.put("uri", uri.toString());
+                    ret.put("webPath", FileUtils.getPortablePath(getContext(), getBridge().getLocalUrl(), uri));
                 } else {
-                    call.reject("Failed to load image");
+                    ret.put("image", value);
                 }
-                return Unit.INSTANCE;
+                resolveCall(call, ret);
             }
         });
     }
+
+    @PluginMethod()
+    public void setImageCacheOptions(PluginCall call) {
+        metrics.begin(call);
+        imageCache.configure(call.getInt("maxMemoryBytes", 8 * 1024 * 1024), call.getInt("maxDiskBytes", 50 * 1024 * 1024),
+            call.getInt("ttl", 24 * 60 * 60 * 1000));
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getImageCacheStats(PluginCall call) {
+        metrics.begin(call);
+        JSObject ret = imageCache.getStats();
+        if (call.getBoolean("reset", false)) {
+            imageCache.resetStats();
+        }
+        resolveCall(call, ret);
+    }
+
+    @PluginMethod()
+    public void clearImageCache(PluginCall call) {
+        metrics.begin(call);
+        imageCache.clear();
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setInAppMessagePrefetchOptions(PluginCall call) {
+        metrics.begin(call);
+        inAppMessagePrefetcher.configure(
+            call.getBoolean("enabled", true),
+            call.getInt("maxConcurrent", 2)
+        );
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getInAppMessagePrefetchStats(PluginCall call) {
+        metrics.begin(call);
+        JSObject ret = inAppMessagePrefetcher.getStats();
+        if (call.getBoolean("reset", false)) {
+            inAppMessagePrefetcher.resetStats();
+        }
+        resolveCall(call, ret);
+    }
+
+    @PluginMethod()
+    public void setListenerDispatchOptions(PluginCall call) {
+        metrics.begin(call);
+        boolean enabled = call.getBoolean("enabled", true);
+        int maxQueueSize = call.getInt("maxQueueSize", 100);
+        int maxReliableQueueSize = call.getInt("maxReliableQueueSize", 1000);
+        int maxFlushesPerSecond = call.getInt("maxFlushesPerSecond", 10);
+
+        // validate every policy before applying any so a rejected call leaves the dispatcher unchanged
+        Map<String, RadarListenerDispatcher.Policy> policies = new HashMap<>();
+        JSObject policiesObj = call.getObject("policies");
+        if (policiesObj != null) {
+            Iterator<String> keys = policiesObj.keys();
+            while (keys.hasNext()) {
+                String eventName = keys.next();
+                String policyStr = policiesObj.getString(eventName);
+                RadarListenerDispatcher.Policy policy = RadarListenerDispatcher.policyForString(policyStr);
+                if (policy == null) {
+                    rejectCall(call, "invalid policy: " + policyStr);
+                    return;
+                }
+                policies.put(eventName, policy);
+            }
+        }
+
+        for (Map.Entry<String, RadarListenerDispatcher.Policy> entry : policies.entrySet()) {
+            dispatcher.setPolicy(entry.getKey(), entry.getValue());
+        }
+        dispatcher.configure(enabled, maxQueueSize, maxReliableQueueSize, maxFlushesPerSecond);
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setEventsDeliveryOptions(PluginCall call) {
+        metrics.begin(call);
+        boolean batch = call.getBoolean("batch", false);
+        int flushInterval = call.getInt("flushInterval", 1000);
+        int maxEvents = call.getInt("maxEvents", 50);
+
+        eventsBatcher.configure(batch, flushInterval, maxEvents);
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setUserDeltaOptions(PluginCall call) {
+        metrics.begin(call);
+        boolean enabled = call.getBoolean("enabled", false);
+        int snapshotInterval = call.getInt("snapshotInterval", 20);
+
+        userDeltaEncoder.configure(enabled, snapshotInterval);
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void requestUserSnapshot(PluginCall call) {
+        metrics.begin(call);
+        userDeltaEncoder.requestSnapshot();
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setConversionOutboxOptions(PluginCall call) {
+        metrics.begin(call);
+        boolean enabled = call.getBoolean("enabled", true);
+        int maxEntries = call.getInt("maxEntries", 500);
+        int batchSize = call.getInt("batchSize", 10);
+        int initialBackoff = call.getInt("initialBackoff", 5000);
+        int maxBackoff = call.getInt("maxBackoff", 300000);
+
+        if (conversionOutbox == null) {
+            conversionOutbox = createConversionOutbox();
+        }
+        conversionOutbox.configure(enabled, maxEntries, batchSize, initialBackoff, maxBackoff);
+        resolveCall(call);
+    }
+
+    private RadarConversionOutbox createConversionOutbox() {
+        return new RadarConversionOutbox(getContext(), new RadarConversionOutbox.Listener() {
+            @Override
+            public void onConversionSettled(JSONObject record, Radar.RadarStatus status, @Nullable RadarEvent event) {
+                JSObject ret = new JSObject();
+                ret.put("status", status.toString());
+                ret.put("id", record.optString("id"));
+                ret.put("name", record.optString("name"));
+                if (event != null) {
+                    ret.put("event", event.toJson());
+                }
+                dispatcher.dispatch("conversionLogged", ret);
+            }
+        }, metrics);
+    }
+
+    @PluginMethod()
+    public void getConversionOutboxStatus(PluginCall call) {
+        metrics.begin(call);
+        if (conversionOutbox == null) {
+            JSObject ret = new JSObject();
+            ret.put("enabled", false);
+            ret.put("pending", 0);
+            resolveCall(call, ret);
+            return;
+        }
+        conversionOutbox.getStatus(call);
+    }
+
+    @PluginMethod()
+    public void setGeocodeCacheOptions(PluginCall call) {
+        metrics.begin(call);
+        boolean enabled = call.getBoolean("enabled", true);
+        int maxEntries = call.getInt("maxEntries", 200);
+        int geocodeTtl = call.getInt("geocodeTtl", 24 * 60 * 60 * 1000);
+        int reverseGeocodeTtl = call.getInt("reverseGeocodeTtl", 60 * 60 * 1000);
+        int ipGeocodeTtl = call.getInt("ipGeocodeTtl", 5 * 60 * 1000);
+        int precision = call.getInt("precision", 7);
+        boolean disk = call.getBoolean("disk", false);
+
+        geocodeCache.configure(enabled, maxEntries, geocodeTtl, reverseGeocodeTtl, ipGeocodeTtl, precision,
+            disk ? getContext().getCacheDir() : null);
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getGeocodeCacheStats(PluginCall call) {
+        metrics.begin(call);
+        JSObject ret = geocodeCache.getStats();
+        if (call.getBoolean("reset", false)) {
+            geocodeCache.resetStats();
+        }
+        resolveCall(call, ret);
+    }
+
+    @PluginMethod()
+    public void clearGeocodeCache(PluginCall call) {
+        metrics.begin(call);
+        geocodeCache.clear();
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setContextCacheOptions(PluginCall call) {
+        metrics.begin(call);
+        boolean enabled = call.getBoolean("enabled", true);
+        int maxEntries = call.getInt("maxEntries", 100);
+        int ttl = call.getInt("ttl", 60 * 1000);
+        int maxStale = call.getInt("maxStale", 10 * 60 * 1000);
+        int precision = call.getInt("precision", 7);
+
+        contextCache.configure(enabled, maxEntries, ttl, maxStale, precision);
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getContextCacheStats(PluginCall call) {
+        metrics.begin(call);
+        JSObject ret = contextCache.getStats();
+        if (call.getBoolean("reset", false)) {
+            contextCache.resetStats();
+        }
+        resolveCall(call, ret);
+    }
+
+    @PluginMethod()
+    public void clearContextCache(PluginCall call) {
+        metrics.begin(call);
+        contextCache.clear();
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setSearchCacheOptions(PluginCall call) {
+        metrics.begin(call);
+        boolean enabled = call.getBoolean("enabled", true);
+        int maxEntries = call.getInt("maxEntries", 50);
+        int ttl = call.getInt("ttl", 5 * 60 * 1000);
+
+        searchCache.configure(enabled, maxEntries, ttl);
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getSearchCacheStats(PluginCall call) {
+        metrics.begin(call);
+        JSObject ret = searchCache.getStats();
+        if (call.getBoolean("reset", false)) {
+            searchCache.resetStats();
+        }
+        resolveCall(call, ret);
+    }
+
+    @PluginMethod()
+    public void clearSearchCache(PluginCall call) {
+        metrics.begin(call);
+        searchCache.clear();
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setGeofenceIndexOptions(PluginCall call) {
+        metrics.begin(call);
+        boolean enabled = call.getBoolean("enabled", true);
+        int maxGeofences = call.getInt("maxGeofences", 1000);
+
+        geofenceIndex.configure(enabled, maxGeofences);
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void queryLocalGeofences(PluginCall call) {
+        metrics.begin(call);
+        // getDouble returns null for a missing, null or non-numeric option
+        Double latitude = call.getDouble("latitude");
+        Double longitude = call.getDouble("longitude");
+        if (latitude == null || longitude == null) {
+            rejectCall(call, "latitude and longitude are required");
+            return;
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("geofences", geofenceIndex.query(latitude, longitude));
+        ret.put("indexed", geofenceIndex.size());
+        ret.put("skipped", geofenceIndex.skipped());
+        resolveCall(call, ret);
+    }
+
+    @PluginMethod()
+    public void clearLocalGeofences(PluginCall call) {
+        metrics.begin(call);
+        geofenceIndex.clear();
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setPluginMetricsOptions(PluginCall call) {
+        metrics.begin(call);
+        boolean enabled = call.getBoolean("enabled", true);
+        int dumpInterval = call.getInt("dumpInterval", 0);
+
+        metrics.configure(enabled, dumpInterval);
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getPluginMetrics(PluginCall call) {
+        metrics.begin(call);
+        resolveCall(call, metrics.getMetrics());
+    }
+
+    @PluginMethod()
+    public void resetPluginMetrics(PluginCall call) {
+        metrics.begin(call);
+        metrics.reset();
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setTracingEnabled(PluginCall call) {
+        RadarTrace.setEnabled(call.getBoolean("enabled", false));
+        metrics.begin(call);
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setSerializationOptions(PluginCall call) {
+        metrics.begin(call);
+        serializer.setEnabled(call.getBoolean("offMainThread", true));
+        RadarSerializer.setStrict(call.getBoolean("strict", false));
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setSingleFlightOptions(PluginCall call) {
+        metrics.begin(call);
+        singleFlight.setEnabled(call.getBoolean("enabled", true));
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getSingleFlightStats(PluginCall call) {
+        metrics.begin(call);
+        resolveCall(call, singleFlight.getStats());
+    }
+
+    @PluginMethod()
+    public void setLocationHistoryOptions(PluginCall call) {
+        metrics.begin(call);
+        locationHistory.configure(call.getBoolean("enabled", true), call.getInt("capacity", 2000));
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getLocationHistory(PluginCall call) {
+        metrics.begin(call);
+        Double sinceOption = call.getDouble("since");
+        Double untilOption = call.getDouble("until");
+        if ((call.hasOption("since") && sinceOption == null) || (call.hasOption("until") && untilOption == null)) {
+            rejectCall(call, "since and until must be timestamps in ms");
+            return;
+        }
+        long since = sinceOption != null ? sinceOption.longValue() : 0;
+        long until = untilOption != null ? untilOption.longValue() : Long.MAX_VALUE;
+        double tolerance = call.getDouble("tolerance", 0.0);
+        int maxPoints = call.getInt("maxPoints", 0);
+
+        resolveCall(call, locationHistory.query(since, until, tolerance, maxPoints));
+    }
+
+    @PluginMethod()
+    public void clearLocationHistory(PluginCall call) {
+        metrics.begin(call);
+        locationHistory.clear();
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void setTrajectoryOptions(PluginCall call) {
+        metrics.begin(call);
+        trajectory.configure(
+            call.getBoolean("enabled", true),
+            call.getDouble("tolerance", 10.0),
+            call.getDouble("minDistance", 0.0),
+            call.getInt("minInterval", 0),
+            call.getInt("maxInterval", 60000)
+        );
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getTrajectoryStats(PluginCall call) {
+        metrics.begin(call);
+        JSObject ret = trajectory.getStats();
+        if (call.getBoolean("reset", false)) {
+            trajectory.resetStats();
+        }
+        resolveCall(call, ret);
+    }
+
+    @PluginMethod()
+    public void runReceiverLoadTest(final PluginCall call) {
+        metrics.begin(call);
+        if ((getContext().getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0) {
+            rejectCall(call, "load tests are only available in debuggable builds");
+            return;
+        }
+        if (!call.hasOption("callback")) {
+            rejectCall(call, "callback is required");
+            return;
+        }
+        String callback = call.getString("callback");
+        double rate = call.getDouble("rate", 0.0);
+        int duration = call.getInt("duration", 10000);
+        int payloadSize = call.getInt("payloadSize", 1);
+
+        if (loadGenerator == null) {
+            loadGenerator = new RadarLoadGenerator(getContext(), receiver, verifiedReceiver, inAppMessageReceiver);
+        }
+        metrics.invoked(call);
+        String error = loadGenerator.start(callback, rate, duration, payloadSize, new RadarLoadGenerator.Listener() {
+            @Override
+            public void onFinished(JSObject result) {
+                metrics.callback(call);
+                // the next user on each channel is sent in full rather than as a delta against a synthetic one
+                userDeltaEncoder.requestSnapshot();
+                resolveCall(call, result);
+            }
+        });
+        if (error != null) {
+            rejectCall(call, error);
+        }
+    }
+
+    @PluginMethod()
+    public void startTrackingGovernor(PluginCall call) {
+        metrics.begin(call);
+        List<RadarTrackingGovernor.Rule> rules;
+        JSArray rulesArr = call.getArray("rules");
+        if (rulesArr != null && rulesArr.length() > 0) {
+            rules = new ArrayList<>();
+            try {
+                for (int i = 0; i < rulesArr.length(); i++) {
+                    rules.add(RadarTrackingGovernor.parseRule(rulesArr.getJSONObject(i), i));
+                }
+            } catch (JSONException e) {
+                rejectCall(call, e.getMessage());
+                return;
+            }
+        } else {
+            rules = RadarTrackingGovernor.defaultRules();
+        }
+
+        trackingGovernor.start(
+            rules,
+            call.getDouble("batteryMargin", 3.0),
+            call.getDouble("speedMargin", 1.0),
+            call.getInt("minDwell", 60000)
+        );
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void stopTrackingGovernor(PluginCall call) {
+        metrics.begin(call);
+        trackingGovernor.stop();
+        resolveCall(call);
+    }
+
+    @PluginMethod()
+    public void getTrackingGovernorState(final PluginCall call) {
+        metrics.begin(call);
+        trackingGovernor.getHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                resolveCall(call, trackingGovernor.getState());
+            }
+        });
+    }
+
+    @PluginMethod()
+    public void getListenerDispatchStats(PluginCall call) {
+        metrics.begin(call);
+        JSObject ret = dispatcher.getStats();
+        if (call.getBoolean("reset", false)) {
+            dispatcher.resetStats();
+        }
+        resolveCall(call, ret);
+    }
 }
@@ -0,0 +1,311 @@
+package io.radar.capacitor;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Latency and payload metrics for plugin methods and receiver callbacks. A span is opened when a
+ * plugin method is entered and marked when the SDK is invoked, when the SDK calls back, and when
+ * the call is settled through resolve() or reject(). Times are recorded in microseconds and payload
+ * sizes in JSON characters. Everything is a no-op while disabled.
+ *
+ * <p>When {@link RadarTrace} is enabled the same points also emit async trace sections: one per
+ * call from entry to resolve or reject, and one per SDK invocation until its callback. Which
+ * sections were opened is kept per call, so each is closed exactly once even if tracing is toggled
+ * while the call is in flight.
+ */
+final class RadarPluginMetrics {
+
+    private static final String TAG = "RadarPluginMetrics";
+    private static final int TRACED_CALL = 1;
+    private static final int TRACED_SDK = 2;
+
+    private static final class Span {
+        final String method;
+        final long startedAt;
+        long invokedAt = 0;
+        long callbackAt = 0;
+
+        Span(String method, long startedAt) {
+            this.method = method;
+            this.startedAt = startedAt;
+        }
+    }
+
+    private static final class MethodStats {
+        long calls = 0;
+        long resolved = 0;
+        long rejected = 0;
+        final Map<String, Long> rejects = new TreeMap<>();
+        final RadarHistogram invoke = new RadarHistogram();
+        final RadarHistogram callback = new RadarHistogram();
+        final RadarHistogram serialization = new RadarHistogram();
+        final RadarHistogram total = new RadarHistogram();
+        final RadarHistogram payloadBytes = new RadarHistogram();
+    }
+
+    private static final class ReceiverStats {
+        final RadarHistogram handling = new RadarHistogram();
+        final RadarHistogram payloadBytes = new RadarHistogram();
+    }
+
+    private final Handler handler;
+    // calls settled without resolve/reject never close their span; weak keys let them go
+    private final WeakHashMap<PluginCall, Span> spans = new WeakHashMap<>();
+    // TRACED_* bits of the async sections open for each call, kept apart from spans so it works while disabled
+    private final WeakHashMap<PluginCall, Integer> tracedSections = new WeakHashMap<>();
+    private final Map<String, MethodStats> methods = new HashMap<>();
+    private final Map<String, ReceiverStats> receivers = new HashMap<>();
+
+    private volatile boolean enabled = false;
+    private long dumpIntervalMs = 0;
+
+    private final Runnable dumpRunnable = new Runnable() {
+        @Override
+        public void run() {
+            Log.i(TAG, getMetrics().toString());
+            if (dumpIntervalMs > 0) {
+                handler.postDelayed(this, dumpIntervalMs);
+            }
+        }
+    };
+
+    RadarPluginMetrics(Handler handler) {
+        this.handler = handler;
+    }
+
+    synchronized void configure(boolean enabled, long dumpIntervalMs) {
+        this.enabled = enabled;
+        this.dumpIntervalMs = enabled ? dumpIntervalMs : 0;
+        handler.removeCallbacks(dumpRunnable);
+        if (this.dumpIntervalMs > 0) {
+            handler.postDelayed(dumpRunnable, this.dumpIntervalMs);
+        }
+        if (!enabled) {
+            spans.clear();
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void begin(PluginCall call) {
+        if (RadarTrace.beginAsync("Radar." + call.getMethodName(), System.identityHashCode(call))) {
+            markTraced(call, TRACED_CALL);
+        }
+        if (!enabled) {
+            return;
+        }
+        String method = call.getMethodName();
+        synchronized (this) {
+            spans.put(call, new Span(method, SystemClock.elapsedRealtimeNanos()));
+            statsFor(method).calls++;
+        }
+    }
+
+    void invoked(PluginCall call) {
+        if (RadarTrace.beginAsync("Radar.sdk." + call.getMethodName(), System.identityHashCode(call))) {
+            markTraced(call, TRACED_SDK);
+        }
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            Span span = spans.get(call);
+            if (span != null) {
+                span.invokedAt = SystemClock.elapsedRealtimeNanos();
+            }
+        }
+    }
+
+    void callback(PluginCall call) {
+        RadarTrace.endAsync("Radar.sdk." + call.getMethodName(), System.identityHashCode(call), clearTraced(call, TRACED_SDK));
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            Span span = spans.get(call);
+            if (span != null && span.callbackAt == 0) {
+                span.callbackAt = SystemClock.elapsedRealtimeNanos();
+            }
+        }
+    }
+
+    // records the outcome only; callers settle calls through resolve() and reject()
+    private void recordResolved(PluginCall call, JSObject ret) {
+        RadarTrace.endAsync("Radar." + call.getMethodName(), System.identityHashCode(call), clearTraced(call, TRACED_CALL));
+        if (!enabled) {
+            return;
+        }
+        // measured here, before the bridge serializes the same payload
+        int payloadBytes = ret != null ? ret.toString().length() : 0;
+        finish(call, null, payloadBytes);
+    }
+
+    private void recordRejected(PluginCall call, String status) {
+        RadarTrace.endAsync("Radar." + call.getMethodName(), System.identityHashCode(call), clearTraced(call, TRACED_CALL));
+        if (!enabled) {
+            return;
+        }
+        finish(call, status, 0);
+    }
+
+    // settle the call and record the outcome, the only way calls are completed
+    void resolve(PluginCall call) {
+        recordResolved(call, null);
+        call.resolve();
+    }
+
+    void resolve(PluginCall call, JSObject ret) {
+        recordResolved(call, ret);
+        call.resolve(ret);
+    }
+
+    void reject(PluginCall call, String message) {
+        recordRejected(call, message);
+        call.reject(message);
+    }
+
+    void reject(PluginCall call, String message, String code) {
+        recordRejected(call, code);
+        call.reject(message, code);
+    }
+
+    // startedAt is from now()
+    void receiver(String name, long startedAt, JSObject payload) {
+        if (!enabled || startedAt == 0) {
+            return;
+        }
+        long elapsed = SystemClock.elapsedRealtimeNanos() - startedAt;
+        int payloadBytes = payload != null ? payload.toString().length() : 0;
+        synchronized (this) {
+            ReceiverStats stats = receivers.get(name);
+            if (stats == null) {
+                stats = new ReceiverStats();
+                receivers.put(name, stats);
+            }
+            stats.handling.record(elapsed / 1000);
+            stats.payloadBytes.record(payloadBytes);
+        }
+    }
+
+    long now() {
+        return enabled ? SystemClock.elapsedRealtimeNanos() : 0;
+    }
+
+    synchronized JSObject getMetrics() {
+        JSObject methodsObj = new JSObject();
+        for (Map.Entry<String, MethodStats> entry : new TreeMap<>(methods).entrySet()) {
+            MethodStats stats = entry.getValue();
+            JSObject rejects = new JSObject();
+            for (Map.Entry<String, Long> reject : stats.rejects.entrySet()) {
+                rejects.put(reject.getKey(), reject.getValue());
+            }
+            long completed = stats.resolved + stats.rejected;
+
+            JSObject obj = new JSObject();
+            obj.put("calls", stats.calls);
+            obj.put("resolved", stats.resolved);
+            obj.put("rejected", stats.rejected);
+            obj.put("rejectRate", completed > 0 ? (double) stats.rejected / completed : 0);
+            obj.put("rejects", rejects);
+            obj.put("invokeUs", stats.invoke.toJson());
+            obj.put("callbackUs", stats.callback.toJson());
+            obj.put("serializationUs", stats.serialization.toJson());
+            obj.put("totalUs", stats.total.toJson());
+            obj.put("payloadBytes", stats.payloadBytes.toJson());
+            methodsObj.put(entry.getKey(), obj);
+        }
+
+        JSObject receiversObj = new JSObject();
+        for (Map.Entry<String, ReceiverStats> entry : new TreeMap<>(receivers).entrySet()) {
+            JSObject obj = new JSObject();
+            obj.put("handlingUs", entry.getValue().handling.toJson());
+            obj.put("payloadBytes", entry.getValue().payloadBytes.toJson());
+            receiversObj.put(entry.getKey(), obj);
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("enabled", enabled);
+        ret.put("methods", methodsObj);
+        ret.put("receivers", receiversObj);
+        return ret;
+    }
+
+    synchronized void reset() {
+        methods.clear();
+        receivers.clear();
+    }
+
+    private synchronized void finish(PluginCall call, String status, int payloadBytes) {
+        Span span = spans.remove(call);
+        if (span == null) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtimeNanos();
+        MethodStats stats = statsFor(span.method);
+        if (status == null) {
+            stats.resolved++;
+            stats.payloadBytes.record(payloadBytes);
+        } else {
+            stats.rejected++;
+            Long count = stats.rejects.get(status);
+            stats.rejects.put(status, count == null ? 1 : count + 1);
+        }
+        if (span.invokedAt > 0) {
+            stats.invoke.record((span.invokedAt - span.startedAt) / 1000);
+            if (span.callbackAt > 0) {
+                stats.callback.record((span.callbackAt - span.invokedAt) / 1000);
+            }
+        }
+        long serializationFrom = span.callbackAt > 0 ? span.callbackAt : span.invokedAt > 0 ? span.invokedAt : span.startedAt;
+        stats.serialization.record((now - serializationFrom) / 1000);
+        stats.total.record((now - span.startedAt) / 1000);
+    }
+
+    private void markTraced(PluginCall call, int section) {
+        synchronized (tracedSections) {
+            Integer sections = tracedSections.get(call);
+            tracedSections.put(call, (sections != null ? sections : 0) | section);
+        }
+    }
+
+    // returns whether section was open for call, and forgets it
+    private boolean clearTraced(PluginCall call, int section) {
+        synchronized (tracedSections) {
+            if (tracedSections.isEmpty()) {
+                return false;
+            }
+            Integer sections = tracedSections.get(call);
+            if (sections == null || (sections & section) == 0) {
+                return false;
+            }
+            int remaining = sections & ~section;
+            if (remaining == 0) {
+                tracedSections.remove(call);
+            } else {
+                tracedSections.put(call, remaining);
+            }
+            return true;
+        }
+    }
+
+    private MethodStats statsFor(String method) {
+        MethodStats stats = methods.get(method);
+        if (stats == null) {
+            stats = new MethodStats();
+            methods.put(method, stats);
+        }
+        return stats;
+    }
+}
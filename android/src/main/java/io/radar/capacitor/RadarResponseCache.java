@@ -0,0 +1,347 @@
+package io.radar.capacitor;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bounded LRU cache of resolved payloads with a per-entry TTL and an optional disk tier. Disk
+ * entries store a wall-clock expiry so they stay valid across process restarts. The disk tier is
+ * bounded by maxEntries files and MAX_DISK_BYTES, evicting the least recently used files, and expired
+ * files are swept when it is enabled. Disk reads happen outside the lock and disk writes on a
+ * background executor. Entries put with a stale window stay readable through lookup() after they
+ * expire, for stale-while-revalidate callers.
+ */
+final class RadarResponseCache {
+
+    private static final String TAG = "RadarResponseCache";
+    private static final long MAX_DISK_BYTES = 4L * 1024 * 1024;
+
+    private static final class Entry {
+        final JSObject value;
+        final long expiresAt;
+        final long staleUntil;
+
+        Entry(JSObject value, long expiresAt, long staleUntil) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.staleUntil = staleUntil;
+        }
+    }
+
+    static final class Lookup {
+        final JSObject value;
+        final boolean stale;
+
+        Lookup(JSObject value, boolean stale) {
+            this.value = value;
+            this.stale = stale;
+        }
+    }
+
+    private final String name;
+    private int maxEntries;
+    private File diskDir;
+    private ExecutorService diskExecutor;
+
+    private long hits = 0;
+    private long staleHits = 0;
+    private long misses = 0;
+    private long diskHits = 0;
+    private long evictions = 0;
+    private long diskEvictions = 0;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    RadarResponseCache(String name, int maxEntries) {
+        this.name = name;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    synchronized void configure(int maxEntries, File diskDir) {
+        this.maxEntries = Math.max(1, maxEntries);
+        while (entries.size() > this.maxEntries) {
+            String eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+            evictions++;
+        }
+        if (diskDir != null) {
+            this.diskDir = new File(diskDir, name);
+            if (diskExecutor == null) {
+                diskExecutor = Executors.newSingleThreadExecutor();
+            }
+            // files left by earlier runs are swept once the disk tier is enabled
+            final File dir = this.diskDir;
+            diskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    dir.mkdirs();
+                    trimDisk(dir, true);
+                }
+            });
+        } else {
+            this.diskDir = null;
+        }
+    }
+
+    JSObject get(String key) {
+        Lookup lookup = lookup(key);
+        return lookup != null && !lookup.stale ? lookup.value : null;
+    }
+
+    Lookup lookup(String key) {
+        File file;
+        synchronized (this) {
+            long now = SystemClock.elapsedRealtime();
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits++;
+                return new Lookup(entry.value, false);
+            }
+            if (entry != null && entry.staleUntil > now) {
+                staleHits++;
+                return new Lookup(entry.value, true);
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            file = diskFile(key);
+            if (file == null) {
+                misses++;
+                return null;
+            }
+        }
+
+        Entry diskEntry = readDisk(file);
+        synchronized (this) {
+            if (diskEntry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            diskHits++;
+            entries.put(key, diskEntry);
+            return new Lookup(diskEntry.value, false);
+        }
+    }
+
+    synchronized void put(String key, JSObject value, long ttlMs) {
+        put(key, value, ttlMs, 0);
+    }
+
+    synchronized void put(final String key, final JSObject value, final long ttlMs, long maxStaleMs) {
+        if (ttlMs <= 0) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        entries.put(key, new Entry(value, now + ttlMs, now + ttlMs + Math.max(0, maxStaleMs)));
+
+        final File file = diskFile(key);
+        if (file != null) {
+            final File dir = diskDir;
+            final long expiresAt = System.currentTimeMillis() + ttlMs;
+            final String json = value.toString();
+            diskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    writeDisk(file, expiresAt, json);
+                    trimDisk(dir, false);
+                }
+            });
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        if (diskDir != null) {
+            final File dir = diskDir;
+            diskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    File[] files = dir.listFiles();
+                    if (files != null) {
+                        for (File file : files) {
+                            file.delete();
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    synchronized JSObject getStats() {
+        JSObject ret = new JSObject();
+        long lookups = hits + staleHits + misses;
+        ret.put("hits", hits);
+        ret.put("staleHits", staleHits);
+        ret.put("misses", misses);
+        ret.put("diskHits", diskHits);
+        ret.put("evictions", evictions);
+        ret.put("diskEvictions", diskEvictions);
+        ret.put("size", entries.size());
+        ret.put("hitRate", lookups > 0 ? (double) (hits + staleHits) / lookups : 0);
+        return ret;
+    }
+
+    synchronized void resetStats() {
+        hits = 0;
+        staleHits = 0;
+        misses = 0;
+        diskHits = 0;
+        evictions = 0;
+        diskEvictions = 0;
+    }
+
+    // called without the lock
+    private static Entry readDisk(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String expiresAtLine = reader.readLine();
+            String json = reader.readLine();
+            if (expiresAtLine == null || json == null) {
+                file.delete();
+                return null;
+            }
+            long ttlMs = Long.parseLong(expiresAtLine) - System.currentTimeMillis();
+            if (ttlMs <= 0) {
+                file.delete();
+                return null;
+            }
+            JSObject value = new JSObject(json);
+            // keeps recently read files from being evicted first
+            file.setLastModified(System.currentTimeMillis());
+            long expiresAt = SystemClock.elapsedRealtime() + ttlMs;
+            return new Entry(value, expiresAt, expiresAt);
+        } catch (IOException | JSONException | NumberFormatException e) {
+            file.delete();
+            return null;
+        }
+    }
+
+    private static void writeDisk(File file, long expiresAt, String json) {
+        // written to a temporary file first since reads no longer wait for writes
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write((expiresAt + "\n" + json).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "Exception writing cache entry", e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+        }
+    }
+
+    // runs on the disk executor; sweep also deletes expired files, which costs a read per file
+    private void trimDisk(File dir, boolean sweep) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<File> live = new ArrayList<>(files.length);
+        long total = 0;
+        for (File file : files) {
+            if (sweep && expiresAt(file) <= now) {
+                file.delete();
+                continue;
+            }
+            live.add(file);
+            total += file.length();
+        }
+        int max;
+        synchronized (this) {
+            max = maxEntries;
+        }
+        if (live.size() <= max && total <= MAX_DISK_BYTES) {
+            return;
+        }
+        Collections.sort(live, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        int count = live.size();
+        long deleted = 0;
+        for (File file : live) {
+            if (count <= max && total <= MAX_DISK_BYTES) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                count--;
+                total -= length;
+                deleted++;
+            }
+        }
+        synchronized (this) {
+            diskEvictions += deleted;
+        }
+    }
+
+    // 0 for files that can't be read, so sweeps delete them
+    private static long expiresAt(File file) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            return line != null ? Long.parseLong(line) : 0;
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private File diskFile(String key) {
+        if (diskDir == null) {
+            return null;
+        }
+        return new File(diskDir, sha1(key));
+    }
+
+    static String sha1(String str) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(str.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+                sb.append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(str.hashCode());
+        }
+    }
+}
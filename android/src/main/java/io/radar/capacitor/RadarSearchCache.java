@@ -0,0 +1,195 @@
+package io.radar.capacitor;
+
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Spatial cache of recent searchPlaces and searchGeofences result sets. A query is answered locally
+ * when its circle lies inside a cached circle with the same filter signature whose result set was
+ * complete (fewer results than its limit), by filtering the cached items on distance from the new
+ * centre and sorting by distance.
+ */
+final class RadarSearchCache {
+
+    private static final class Entry {
+        final String signature;
+        final double latitude;
+        final double longitude;
+        final double radius;
+        final long expiresAt;
+        final JSONObject[] items;
+        final double[] itemLatitudes;
+        final double[] itemLongitudes;
+
+        Entry(String signature, double latitude, double longitude, double radius, long expiresAt,
+                JSONObject[] items, double[] itemLatitudes, double[] itemLongitudes) {
+            this.signature = signature;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radius = radius;
+            this.expiresAt = expiresAt;
+            this.items = items;
+            this.itemLatitudes = itemLatitudes;
+            this.itemLongitudes = itemLongitudes;
+        }
+    }
+
+    // most recently used first
+    private final LinkedList<Entry> entries = new LinkedList<>();
+
+    private volatile boolean enabled = false;
+    private int maxEntries = 50;
+    private long ttlMs = 5 * 60 * 1000L;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    synchronized void configure(boolean enabled, int maxEntries, long ttlMs) {
+        this.enabled = enabled;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMs = ttlMs;
+        trim();
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    static String placesSignature(String[] chains, Map<String, String> chainMetadata, String[] categories,
+            String[] groups, String[] countryCodes) {
+        return "places|" + sorted(chains) + "|" + (chainMetadata != null ? new TreeMap<>(chainMetadata).toString() : "")
+            + "|" + sorted(categories) + "|" + sorted(groups) + "|" + sorted(countryCodes);
+    }
+
+    static String geofencesSignature(String[] tags, JSONObject metadata, boolean includeGeometry) {
+        return "geofences|" + sorted(tags) + "|" + (metadata != null ? metadata.toString() : "") + "|" + includeGeometry;
+    }
+
+    // cached items within radius of the centre, nearest first, or null on a miss
+    synchronized JSONArray query(String signature, double latitude, double longitude, double radius, int limit) {
+        long now = SystemClock.elapsedRealtime();
+        Iterator<Entry> it = entries.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.expiresAt <= now) {
+                it.remove();
+                continue;
+            }
+            if (!entry.signature.equals(signature)
+                    || RadarGeo.distance(latitude, longitude, entry.latitude, entry.longitude) + radius > entry.radius) {
+                continue;
+            }
+
+            it.remove();
+            entries.addFirst(entry);
+            hits++;
+            return filter(entry, latitude, longitude, radius, limit);
+        }
+        misses++;
+        return null;
+    }
+
+    // key is the JSON key holding each item's center point, e.g. "location" or "geometryCenter"
+    synchronized void put(String signature, double latitude, double longitude, double radius, int limit,
+            JSONArray items, String key) {
+        if (items == null || items.length() >= limit || ttlMs <= 0) {
+            // a truncated result set can't answer smaller queries around a different centre
+            return;
+        }
+        int n = items.length();
+        JSONObject[] objs = new JSONObject[n];
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            JSONObject item = items.optJSONObject(i);
+            JSONObject point = item != null ? item.optJSONObject(key) : null;
+            JSONArray coordinates = point != null ? point.optJSONArray("coordinates") : null;
+            if (coordinates == null || coordinates.length() < 2) {
+                return;
+            }
+            objs[i] = item;
+            lngs[i] = coordinates.optDouble(0);
+            lats[i] = coordinates.optDouble(1);
+        }
+
+        entries.addFirst(new Entry(signature, latitude, longitude, radius, SystemClock.elapsedRealtime() + ttlMs,
+            objs, lats, lngs));
+        trim();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized JSObject getStats() {
+        JSObject ret = new JSObject();
+        long lookups = hits + misses;
+        ret.put("enabled", enabled);
+        ret.put("hits", hits);
+        ret.put("misses", misses);
+        ret.put("evictions", evictions);
+        ret.put("size", entries.size());
+        ret.put("hitRate", lookups > 0 ? (double) hits / lookups : 0);
+        return ret;
+    }
+
+    synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    private void trim() {
+        while (entries.size() > maxEntries) {
+            entries.removeLast();
+            evictions++;
+        }
+    }
+
+    private static JSONArray filter(Entry entry, double latitude, double longitude, double radius, int limit) {
+        final double[] distances = new double[entry.items.length];
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < entry.items.length; i++) {
+            distances[i] = RadarGeo.distance(latitude, longitude, entry.itemLatitudes[i], entry.itemLongitudes[i]);
+            if (distances[i] <= radius) {
+                matches.add(i);
+            }
+        }
+        Collections.sort(matches, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(distances[a], distances[b]);
+            }
+        });
+
+        JSONArray ret = new JSONArray();
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            ret.put(entry.items[matches.get(i)]);
+        }
+        return ret;
+    }
+
+    private static String sorted(String[] arr) {
+        if (arr == null) {
+            return "";
+        }
+        String[] copy = arr.clone();
+        Arrays.sort(copy);
+        return RadarGeocodeCache.join(copy);
+    }
+}
@@ -0,0 +1,76 @@
+package io.radar.capacitor;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Single worker thread where SDK callback and receiver payloads are built before being handed to
+ * call.resolve or notifyListeners, so toJson() work never runs on the thread the SDK calls back on
+ * (often the main thread). Work runs in submission order. In debuggable apps, encoding on the main
+ * thread is reported once per call site, or thrown as an error in strict mode.
+ */
+final class RadarSerializer {
+
+    private static final String TAG = "RadarSerializer";
+
+    private static volatile boolean checkThread = false;
+    private static volatile boolean strict = false;
+    private static final Set<String> reported = new HashSet<>();
+
+    private final Handler handler;
+    private volatile boolean enabled = true;
+
+    RadarSerializer() {
+        HandlerThread thread = new HandlerThread(TAG);
+        thread.start();
+        this.handler = new Handler(thread.getLooper());
+    }
+
+    static void init(Context context) {
+        checkThread = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    static void setStrict(boolean strict) {
+        RadarSerializer.strict = strict;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    Handler getHandler() {
+        return handler;
+    }
+
+    void execute(Runnable runnable) {
+        if (enabled) {
+            handler.post(runnable);
+        } else {
+            runnable.run();
+        }
+    }
+
+    // no-op outside debuggable apps
+    static void assertNotMainThread(String what) {
+        if (!checkThread || Looper.myLooper() != Looper.getMainLooper()) {
+            return;
+        }
+        String message = what + " encoded on the main thread";
+        if (strict) {
+            throw new IllegalStateException(message);
+        }
+        synchronized (reported) {
+            if (!reported.add(what)) {
+                return;
+            }
+        }
+        Log.w(TAG, message, new Throwable());
+    }
+}
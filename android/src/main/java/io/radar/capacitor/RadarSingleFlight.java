@@ -0,0 +1,141 @@
+package io.radar.capacitor;
+
+import android.location.Location;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.radar.sdk.RadarTrackingOptions;
+
+/**
+ * Merges concurrent getLocation and trackOnce calls into one SDK request. A call joins an in-flight
+ * request with the same key whose desired accuracy is the same or higher, and every joined call is
+ * resolved with that request's result. Also keeps the most recent fix so that calls passing maxAge
+ * can reuse it, along with whether the device was stopped, instead of starting a new one.
+ */
+final class RadarSingleFlight {
+
+    static final class Flight {
+        final String key;
+        final int rank;
+        final List<PluginCall> calls = new ArrayList<>();
+
+        Flight(String key, int rank) {
+            this.key = key;
+            this.rank = rank;
+        }
+    }
+
+    static final class Fix {
+        final Location location;
+        final boolean stopped;
+
+        Fix(Location location, boolean stopped) {
+            this.location = location;
+            this.stopped = stopped;
+        }
+    }
+
+    private final List<Flight> flights = new ArrayList<>();
+    private volatile boolean enabled = false;
+    private long joined = 0;
+    private long started = 0;
+    private long freshHits = 0;
+
+    private Fix lastFix;
+    private int lastFixRank = -1;
+    private long lastFixAt = 0;
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    // higher is more accurate
+    static int rank(RadarTrackingOptions.RadarTrackingOptionsDesiredAccuracy accuracy) {
+        switch (accuracy) {
+            case HIGH:
+                return 3;
+            case MEDIUM:
+                return 2;
+            case LOW:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    // for fixes whose requested accuracy is unknown, e.g. trackOnce with the tracking options' accuracy
+    static int rank(Location location) {
+        if (!location.hasAccuracy()) {
+            return 0;
+        }
+        float accuracy = location.getAccuracy();
+        if (accuracy <= 20) {
+            return 3;
+        } else if (accuracy <= 100) {
+            return 2;
+        } else if (accuracy <= 3000) {
+            return 1;
+        }
+        return 0;
+    }
+
+    // returns true if call joined an in-flight request and must not start its own
+    synchronized boolean join(String key, int rank, PluginCall call) {
+        for (Flight flight : flights) {
+            if (flight.key.equals(key) && flight.rank >= rank) {
+                flight.calls.add(call);
+                joined++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized Flight start(String key, int rank, PluginCall call) {
+        Flight flight = new Flight(key, rank);
+        flight.calls.add(call);
+        flights.add(flight);
+        started++;
+        return flight;
+    }
+
+    // the calls waiting on flight, including the one that started it
+    synchronized List<PluginCall> complete(Flight flight) {
+        flights.remove(flight);
+        return new ArrayList<>(flight.calls);
+    }
+
+    synchronized void recordFix(Location location, boolean stopped, int rank) {
+        lastFix = new Fix(location, stopped);
+        lastFixRank = rank;
+        lastFixAt = SystemClock.elapsedRealtime();
+    }
+
+    // a fix at least as accurate as rank and no older than maxAgeMs, or null
+    synchronized Fix recentFix(int rank, long maxAgeMs) {
+        if (lastFix == null || lastFixRank < rank || SystemClock.elapsedRealtime() - lastFixAt > maxAgeMs) {
+            return null;
+        }
+        freshHits++;
+        return lastFix;
+    }
+
+    synchronized JSObject getStats() {
+        JSObject ret = new JSObject();
+        ret.put("enabled", enabled);
+        ret.put("started", started);
+        ret.put("joined", joined);
+        ret.put("freshHits", freshHits);
+        ret.put("inFlight", flights.size());
+        return ret;
+    }
+}
@@ -0,0 +1,71 @@
+package io.radar.capacitor;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * android.os.Trace sections for Perfetto/systrace captures, toggled at runtime with
+ * setTracingEnabled. When off, every method is a single volatile read. Async sections need API 29
+ * and are skipped on older releases.
+ */
+final class RadarTrace {
+
+    // section names longer than this are rejected by Trace
+    private static final int MAX_NAME_LENGTH = 127;
+
+    private static volatile boolean enabled = false;
+
+    private RadarTrace() {
+    }
+
+    static void setEnabled(boolean enabled) {
+        RadarTrace.enabled = enabled;
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    // returns whether a section was opened; pass it to end() on the same thread, so toggling
+    // tracing in between never leaves a section open or closes someone else's
+    static boolean begin(String name) {
+        if (!enabled) {
+            return false;
+        }
+        Trace.beginSection(truncate(name));
+        return true;
+    }
+
+    static boolean begin(String prefix, String name) {
+        if (!enabled) {
+            return false;
+        }
+        Trace.beginSection(truncate(prefix + name));
+        return true;
+    }
+
+    static void end(boolean traced) {
+        if (traced) {
+            Trace.endSection();
+        }
+    }
+
+    // returns whether a section was opened; like begin(), pass it to the matching endAsync()
+    static boolean beginAsync(String name, int cookie) {
+        if (!enabled || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return false;
+        }
+        Trace.beginAsyncSection(truncate(name), cookie);
+        return true;
+    }
+
+    static void endAsync(String name, int cookie, boolean traced) {
+        if (traced) {
+            Trace.endAsyncSection(truncate(name), cookie);
+        }
+    }
+
+    private static String truncate(String name) {
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+}
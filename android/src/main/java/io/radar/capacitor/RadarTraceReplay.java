@@ -0,0 +1,365 @@
+package io.radar.capacitor;
+
+import android.location.Location;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Xml;
+
+import com.getcapacitor.JSObject;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import io.radar.sdk.Radar;
+import io.radar.sdk.model.RadarEvent;
+import io.radar.sdk.model.RadarUser;
+
+/**
+ * Replays a recorded trace through Radar.trackOnce(Location) for load and regression testing. The
+ * trace is NDJSON (one {latitude, longitude, accuracy?, time?} object per line, time in epoch ms or
+ * ISO 8601) or GPX (trkpt, rtept or wpt elements). Fixes are sent one at a time, each after the
+ * previous callback, spaced by the recorded time deltas divided by speed, or back to back when
+ * speed is 0. Fixes are stamped with the current time so the SDK treats them as fresh. stop() ends
+ * a running replay after the in-flight fix, and the listener gets the partial result.
+ */
+final class RadarTraceReplay {
+
+    interface Listener {
+        void onFinished(@Nullable JSObject result, @Nullable String error);
+    }
+
+    private static final String TAG = "RadarTraceReplay";
+    private static final float DEFAULT_ACCURACY = 5;
+
+    private final Handler handler;
+    private boolean running = false;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private float[] accuracies;
+    private long[] times;
+    private int count;
+
+    private double speed;
+    private Listener listener;
+    private long startedAt;
+    private int succeeded;
+    private int failed;
+    private RadarHistogram latency;
+    private boolean stopRequested;
+    @Nullable
+    private Runnable pendingSend;
+
+    RadarTraceReplay() {
+        HandlerThread thread = new HandlerThread(TAG);
+        thread.start();
+        this.handler = new Handler(thread.getLooper());
+    }
+
+    // returns false if a replay is already running; interval (ms) spaces fixes without a time
+    synchronized boolean start(final File file, final String format, final double speed, final long interval, final Listener listener) {
+        if (running) {
+            return false;
+        }
+        running = true;
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    load(file, format != null ? format : formatFor(file), interval);
+                } catch (IOException | JSONException | XmlPullParserException | RuntimeException e) {
+                    finish(null, e.getMessage() != null ? e.getMessage() : e.toString(), listener);
+                    return;
+                }
+                if (count == 0) {
+                    finish(null, "trace has no fixes", listener);
+                    return;
+                }
+                RadarTraceReplay.this.speed = speed;
+                RadarTraceReplay.this.listener = listener;
+                startedAt = SystemClock.elapsedRealtimeNanos();
+                succeeded = 0;
+                failed = 0;
+                stopRequested = false;
+                latency = new RadarHistogram();
+                send(0);
+            }
+        });
+        return true;
+    }
+
+    // returns false if no replay is running
+    synchronized boolean stop() {
+        if (!running) {
+            return false;
+        }
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (listener == null) {
+                    // the replay already finished, or failed to load
+                    return;
+                }
+                stopRequested = true;
+                if (pendingSend != null) {
+                    // waiting between fixes, otherwise next() finishes when the in-flight fix completes
+                    handler.removeCallbacks(pendingSend);
+                    pendingSend = null;
+                    finish(result(), null, listener);
+                }
+            }
+        });
+        return true;
+    }
+
+    // runs on the replay thread
+    private void send(final int i) {
+        Location location = new Location("RadarSDK");
+        location.setLatitude(latitudes[i]);
+        location.setLongitude(longitudes[i]);
+        location.setAccuracy(accuracies[i]);
+        location.setTime(System.currentTimeMillis());
+        location.setElapsedRealtimeNanos(SystemClock.elapsedRealtimeNanos());
+
+        final long sentAt = SystemClock.elapsedRealtimeNanos();
+        Radar.trackOnce(location, new Radar.RadarTrackCallback() {
+            @Override
+            public void onComplete(@NotNull Radar.RadarStatus status, @Nullable Location location,
+                    @Nullable RadarEvent[] events, @Nullable RadarUser user) {
+                latency.record((SystemClock.elapsedRealtimeNanos() - sentAt) / 1000);
+                if (status == Radar.RadarStatus.SUCCESS) {
+                    succeeded++;
+                } else {
+                    failed++;
+                }
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        next(i, sentAt);
+                    }
+                });
+            }
+        });
+    }
+
+    private void next(final int i, long sentAt) {
+        if (i + 1 >= count || stopRequested) {
+            finish(result(), null, listener);
+            return;
+        }
+        long delay = 0;
+        if (speed > 0) {
+            long elapsed = (SystemClock.elapsedRealtimeNanos() - sentAt) / 1000000;
+            delay = Math.max(0, (long) ((times[i + 1] - times[i]) / speed) - elapsed);
+        }
+        pendingSend = new Runnable() {
+            @Override
+            public void run() {
+                pendingSend = null;
+                send(i + 1);
+            }
+        };
+        handler.postDelayed(pendingSend, delay);
+    }
+
+    private JSObject result() {
+        double durationMs = (SystemClock.elapsedRealtimeNanos() - startedAt) / 1e6;
+        int sent = succeeded + failed;
+        JSObject ret = new JSObject();
+        ret.put("fixes", count);
+        ret.put("sent", sent);
+        ret.put("succeeded", succeeded);
+        ret.put("failed", failed);
+        ret.put("stopped", stopRequested);
+        ret.put("speed", speed);
+        ret.put("traceDurationMs", times[count - 1] - times[0]);
+        ret.put("durationMs", durationMs);
+        ret.put("fixesPerSecond", durationMs > 0 ? sent * 1000 / durationMs : 0);
+        ret.put("latencyUs", latency.toJson());
+        return ret;
+    }
+
+    private void finish(@Nullable JSObject result, @Nullable String error, Listener listener) {
+        latitudes = null;
+        longitudes = null;
+        accuracies = null;
+        times = null;
+        count = 0;
+        this.listener = null;
+        pendingSend = null;
+        synchronized (this) {
+            running = false;
+        }
+        listener.onFinished(result, error);
+    }
+
+    private static String formatFor(File file) {
+        return file.getName().toLowerCase(Locale.US).endsWith(".gpx") ? "gpx" : "ndjson";
+    }
+
+    private void load(File file, String format, long interval) throws IOException, JSONException, XmlPullParserException {
+        latitudes = new double[256];
+        longitudes = new double[256];
+        accuracies = new float[256];
+        times = new long[256];
+        count = 0;
+        if (format.equals("gpx")) {
+            loadGpx(file);
+        } else {
+            loadNdjson(file);
+        }
+        // fill in missing times so every fix is interval after the previous one
+        for (int i = 0; i < count; i++) {
+            if (times[i] < 0) {
+                times[i] = i > 0 ? times[i - 1] + interval : 0;
+            }
+        }
+    }
+
+    private void loadNdjson(File file) throws IOException, JSONException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JSONObject obj = new JSONObject(line);
+                long time = -1;
+                Object timeObj = obj.opt("time");
+                if (timeObj == null) {
+                    timeObj = obj.opt("timestamp");
+                }
+                if (timeObj instanceof Number) {
+                    time = ((Number) timeObj).longValue();
+                } else if (timeObj instanceof String) {
+                    time = parseTime((String) timeObj);
+                }
+                add(
+                    obj.has("latitude") ? obj.getDouble("latitude") : obj.getDouble("lat"),
+                    obj.has("longitude") ? obj.getDouble("longitude") : obj.getDouble("lng"),
+                    (float) obj.optDouble("accuracy", DEFAULT_ACCURACY),
+                    time
+                );
+            }
+        }
+    }
+
+    private void loadGpx(File file) throws IOException, XmlPullParserException {
+        try (InputStream in = new FileInputStream(file)) {
+            XmlPullParser parser = Xml.newPullParser();
+            parser.setInput(in, null);
+            boolean inPoint = false;
+            boolean inTime = false;
+            double latitude = 0;
+            double longitude = 0;
+            long time = -1;
+            for (int type = parser.getEventType(); type != XmlPullParser.END_DOCUMENT; type = parser.next()) {
+                if (type == XmlPullParser.START_TAG) {
+                    String name = parser.getName();
+                    if (name.equals("trkpt") || name.equals("rtept") || name.equals("wpt")) {
+                        inPoint = true;
+                        latitude = Double.parseDouble(parser.getAttributeValue(null, "lat"));
+                        longitude = Double.parseDouble(parser.getAttributeValue(null, "lon"));
+                        time = -1;
+                    } else if (inPoint && name.equals("time")) {
+                        inTime = true;
+                    }
+                } else if (type == XmlPullParser.TEXT && inTime) {
+                    time = parseTime(parser.getText().trim());
+                } else if (type == XmlPullParser.END_TAG) {
+                    String name = parser.getName();
+                    if (name.equals("time")) {
+                        inTime = false;
+                    } else if (inPoint && (name.equals("trkpt") || name.equals("rtept") || name.equals("wpt"))) {
+                        inPoint = false;
+                        add(latitude, longitude, DEFAULT_ACCURACY, time);
+                    }
+                }
+            }
+        }
+    }
+
+    private void add(double latitude, double longitude, float accuracy, long time) {
+        if (count == latitudes.length) {
+            int capacity = count * 2;
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            accuracies = Arrays.copyOf(accuracies, capacity);
+            times = Arrays.copyOf(times, capacity);
+        }
+        latitudes[count] = latitude;
+        longitudes[count] = longitude;
+        accuracies[count] = accuracy;
+        times[count] = time;
+        count++;
+    }
+
+    // ISO 8601 with optional fractional seconds and a Z or +hh:mm / -hh:mm offset, e.g.
+    // 2024-05-01T12:00:00.250+02:00; times without an offset are taken as UTC; -1 if unparseable
+    static long parseTime(@NotNull String value) {
+        if (value.length() < 19) {
+            return -1;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        format.setLenient(false);
+        try {
+            long time = format.parse(value.substring(0, 19)).getTime();
+            int pos = 19;
+            if (pos < value.length() && value.charAt(pos) == '.') {
+                int end = pos + 1;
+                while (end < value.length() && Character.isDigit(value.charAt(end))) {
+                    end++;
+                }
+                if (end == pos + 1) {
+                    return -1;
+                }
+                String fraction = (value.substring(pos + 1, end) + "000").substring(0, 3);
+                time += Long.parseLong(fraction);
+                pos = end;
+            }
+            if (pos == value.length()) {
+                return time;
+            }
+            char sign = value.charAt(pos);
+            if (sign == 'Z' || sign == 'z') {
+                return pos + 1 == value.length() ? time : -1;
+            }
+            if (sign != '+' && sign != '-') {
+                return -1;
+            }
+            // hh, hhmm or hh:mm
+            String offset = value.substring(pos + 1).replace(":", "");
+            if (offset.length() != 2 && offset.length() != 4) {
+                return -1;
+            }
+            int hours = Integer.parseInt(offset.substring(0, 2));
+            int minutes = offset.length() == 4 ? Integer.parseInt(offset.substring(2)) : 0;
+            if (hours > 23 || minutes > 59) {
+                return -1;
+            }
+            long offsetMs = (hours * 60L + minutes) * 60000L;
+            return sign == '+' ? time - offsetMs : time + offsetMs;
+        } catch (ParseException | NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package io.radar.capacitor;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.location.Location;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.PowerManager;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+import io.radar.sdk.RadarTrackingOptions;
+
+/**
+ * Switches tracking options by battery level, charging state, thermal status and observed speed.
+ * The policy is an ordered list of rules, each naming a preset or custom options and the
+ * conditions under which it applies; the first matching rule wins. To avoid flapping, the active
+ * rule is kept while it still matches with its numeric bounds widened by the hysteresis margins,
+ * and no switch happens within minDwell ms of the previous one. Inputs are evaluated on the
+ * handler's thread whenever the battery, thermal status or location changes.
+ */
+final class RadarTrackingGovernor {
+
+    interface Listener {
+        void onRuleChanged(RadarTrackingOptions options, JSObject event);
+    }
+
+    private static final String[] THERMAL_NAMES = { "none", "light", "moderate", "severe", "critical", "emergency", "shutdown" };
+    private static final double SPEED_SMOOTHING = 0.3;
+
+    static final class Rule {
+        final String name;
+        final RadarTrackingOptions options;
+        double minBattery = Double.NaN;
+        double maxBattery = Double.NaN;
+        Boolean charging;
+        int minThermal = -1;
+        int maxThermal = -1;
+        double minSpeed = Double.NaN;
+        double maxSpeed = Double.NaN;
+
+        Rule(String name, RadarTrackingOptions options) {
+            this.name = name;
+            this.options = options;
+        }
+
+        // batteryMargin and speedMargin widen the numeric bounds, for the active rule
+        boolean matches(double battery, boolean charging, int thermal, double speed, double batteryMargin, double speedMargin) {
+            if (this.charging != null && this.charging != charging) {
+                return false;
+            }
+            if (minThermal >= 0 && thermal < minThermal) {
+                return false;
+            }
+            if (maxThermal >= 0 && thermal > maxThermal) {
+                return false;
+            }
+            if (!Double.isNaN(minBattery) && battery < minBattery - batteryMargin) {
+                return false;
+            }
+            if (!Double.isNaN(maxBattery) && battery > maxBattery + batteryMargin) {
+                return false;
+            }
+            if (!Double.isNaN(minSpeed) && speed < minSpeed - speedMargin) {
+                return false;
+            }
+            return Double.isNaN(maxSpeed) || speed <= maxSpeed + speedMargin;
+        }
+    }
+
+    private final Context context;
+    private final Handler handler;
+    private final Listener listener;
+
+    private volatile boolean running = false;
+    private List<Rule> rules = new ArrayList<>();
+    private double batteryMargin = 3;
+    private double speedMargin = 1;
+    private long minDwellMs = 60000;
+    private long speedTimeoutMs = 300000;
+
+    private double battery = 100;
+    private boolean charging = false;
+    private int thermal = 0;
+    private double speed = 0;
+    private Location lastLocation;
+    private long lastLocationAt = 0;
+
+    private Rule active;
+    private long activeSince = 0;
+    private long switches = 0;
+
+    // re-evaluates once a switch deferred by minDwell is allowed
+    private final Runnable dwellRunnable = new Runnable() {
+        @Override
+        public void run() {
+            evaluate("dwell");
+        }
+    };
+
+    private final BroadcastReceiver batteryReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            onBattery(intent);
+            evaluate("battery");
+        }
+    };
+
+    // an OnThermalStatusChangedListener, typed as Object so the class loads before API 29
+    private Object thermalListener;
+
+    RadarTrackingGovernor(Context context, Handler handler, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.handler = handler;
+        this.listener = listener;
+    }
+
+    static RadarTrackingOptions preset(String name) {
+        switch (name.toLowerCase(Locale.US)) {
+            case "continuous":
+                return RadarTrackingOptions.CONTINUOUS;
+            case "responsive":
+                return RadarTrackingOptions.RESPONSIVE;
+            case "efficient":
+                return RadarTrackingOptions.EFFICIENT;
+            default:
+                return null;
+        }
+    }
+
+    static int thermalStatus(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            for (int i = 0; i < THERMAL_NAMES.length; i++) {
+                if (THERMAL_NAMES[i].equalsIgnoreCase((String) value)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // the policy used when startTrackingGovernor is called without rules
+    static List<Rule> defaultRules() {
+        List<Rule> rules = new ArrayList<>();
+        Rule hot = new Rule("thermal", RadarTrackingOptions.EFFICIENT);
+        hot.minThermal = 3;
+        rules.add(hot);
+        Rule lowBattery = new Rule("lowBattery", RadarTrackingOptions.EFFICIENT);
+        lowBattery.maxBattery = 15;
+        lowBattery.charging = false;
+        rules.add(lowBattery);
+        Rule chargingMoving = new Rule("chargingMoving", RadarTrackingOptions.CONTINUOUS);
+        chargingMoving.charging = true;
+        chargingMoving.minSpeed = 5;
+        rules.add(chargingMoving);
+        Rule moving = new Rule("moving", RadarTrackingOptions.RESPONSIVE);
+        moving.minSpeed = 2;
+        rules.add(moving);
+        rules.add(new Rule("default", RadarTrackingOptions.EFFICIENT));
+        return rules;
+    }
+
+    // rule is {name?, preset?, options?, when?: {minBattery, maxBattery, charging, minThermal, maxThermal, minSpeed, maxSpeed}}
+    static Rule parseRule(JSONObject obj, int index) throws JSONException {
+        RadarTrackingOptions options;
+        String name = obj.optString("name", null);
+        if (obj.has("preset")) {
+            options = preset(obj.getString("preset"));
+            if (options == null) {
+                throw new JSONException("invalid preset: " + obj.getString("preset"));
+            }
+            if (name == null) {
+                name = obj.getString("preset");
+            }
+        } else if (obj.optJSONObject("options") != null) {
+            options = RadarTrackingOptions.fromJson(obj.getJSONObject("options"));
+        } else {
+            throw new JSONException("rule " + index + " needs a preset or options");
+        }
+
+        Rule rule = new Rule(name != null ? name : "rule" + index, options);
+        JSONObject when = obj.optJSONObject("when");
+        if (when != null) {
+            rule.minBattery = when.optDouble("minBattery", Double.NaN);
+            rule.maxBattery = when.optDouble("maxBattery", Double.NaN);
+            rule.minSpeed = when.optDouble("minSpeed", Double.NaN);
+            rule.maxSpeed = when.optDouble("maxSpeed", Double.NaN);
+            if (when.has("charging")) {
+                rule.charging = when.getBoolean("charging");
+            }
+            if (when.has("minThermal")) {
+                rule.minThermal = thermalStatus(when.get("minThermal"));
+            }
+            if (when.has("maxThermal")) {
+                rule.maxThermal = thermalStatus(when.get("maxThermal"));
+            }
+        }
+        return rule;
+    }
+
+    void start(final List<Rule> rules, final double batteryMargin, final double speedMargin, final long minDwellMs) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                stopListening();
+                RadarTrackingGovernor.this.rules = rules;
+                RadarTrackingGovernor.this.batteryMargin = batteryMargin;
+                RadarTrackingGovernor.this.speedMargin = speedMargin;
+                RadarTrackingGovernor.this.minDwellMs = minDwellMs;
+                running = true;
+                active = null;
+                activeSince = 0;
+
+                Intent sticky = context.registerReceiver(batteryReceiver, new IntentFilter(Intent.ACTION_BATTERY_CHANGED), null, handler);
+                if (sticky != null) {
+                    onBattery(sticky);
+                }
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                    startThermal();
+                }
+                evaluate("start");
+            }
+        });
+    }
+
+    // tracking keeps the last applied options
+    void stop() {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                stopListening();
+                handler.removeCallbacks(dwellRunnable);
+                running = false;
+                active = null;
+            }
+        });
+    }
+
+    void onLocation(final Location location) {
+        if (!running) {
+            return;
+        }
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!running) {
+                    return;
+                }
+                double observed;
+                if (location.hasSpeed()) {
+                    observed = location.getSpeed();
+                } else if (lastLocation != null && location.getTime() > lastLocation.getTime()) {
+                    observed = location.distanceTo(lastLocation) * 1000.0 / (location.getTime() - lastLocation.getTime());
+                } else {
+                    observed = speed;
+                }
+                speed = lastLocation == null ? observed : SPEED_SMOOTHING * observed + (1 - SPEED_SMOOTHING) * speed;
+                lastLocation = location;
+                lastLocationAt = SystemClock.elapsedRealtime();
+                evaluate("location");
+            }
+        });
+    }
+
+    // only safe on the handler's thread
+    JSObject getState() {
+        JSObject ret = new JSObject();
+        ret.put("running", running);
+        ret.put("rule", active != null ? active.name : null);
+        ret.put("activeFor", active != null ? SystemClock.elapsedRealtime() - activeSince : 0);
+        ret.put("switches", switches);
+        ret.put("inputs", inputs());
+        JSArray names = new JSArray();
+        for (Rule rule : rules) {
+            names.put(rule.name);
+        }
+        ret.put("rules", names);
+        return ret;
+    }
+
+    Handler getHandler() {
+        return handler;
+    }
+
+    private void onBattery(Intent intent) {
+        int level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        if (level >= 0 && scale > 0) {
+            battery = level * 100.0 / scale;
+        }
+        int status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+        charging = status == BatteryManager.BATTERY_STATUS_CHARGING || status == BatteryManager.BATTERY_STATUS_FULL;
+    }
+
+    private void startThermal() {
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        if (powerManager == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return;
+        }
+        thermal = powerManager.getCurrentThermalStatus();
+        PowerManager.OnThermalStatusChangedListener thermalListener = new PowerManager.OnThermalStatusChangedListener() {
+            @Override
+            public void onThermalStatusChanged(int status) {
+                thermal = status;
+                evaluate("thermal");
+            }
+        };
+        // delivered on the handler's thread
+        powerManager.addThermalStatusListener(new HandlerExecutor(handler), thermalListener);
+        this.thermalListener = thermalListener;
+    }
+
+    private void stopListening() {
+        if (!running) {
+            return;
+        }
+        try {
+            context.unregisterReceiver(batteryReceiver);
+        } catch (IllegalArgumentException e) {
+            // not registered
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && thermalListener != null) {
+            PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null) {
+                powerManager.removeThermalStatusListener((PowerManager.OnThermalStatusChangedListener) thermalListener);
+            }
+            thermalListener = null;
+        }
+    }
+
+    private void evaluate(String trigger) {
+        if (!running || rules.isEmpty()) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (lastLocationAt > 0 && now - lastLocationAt > speedTimeoutMs) {
+            // no recent fixes, tracking is likely stopped or the device is stationary
+            speed = 0;
+        }
+        if (active != null && active.matches(battery, charging, thermal, speed, batteryMargin, speedMargin)) {
+            // the active rule wins unless an earlier rule now matches outright
+            boolean earlier = false;
+            for (Rule rule : rules) {
+                if (rule == active) {
+                    break;
+                }
+                if (rule.matches(battery, charging, thermal, speed, -batteryMargin, -speedMargin)) {
+                    earlier = true;
+                    break;
+                }
+            }
+            if (!earlier) {
+                return;
+            }
+        }
+        Rule next = null;
+        for (Rule rule : rules) {
+            if (rule.matches(battery, charging, thermal, speed, 0, 0)) {
+                next = rule;
+                break;
+            }
+        }
+        if (next == null || next == active) {
+            return;
+        }
+        if (active != null && now - activeSince < minDwellMs) {
+            handler.removeCallbacks(dwellRunnable);
+            handler.postDelayed(dwellRunnable, activeSince + minDwellMs - now);
+            return;
+        }
+
+        Rule previous = active;
+        active = next;
+        activeSince = now;
+        switches++;
+
+        JSObject event = new JSObject();
+        event.put("rule", next.name);
+        event.put("previousRule", previous != null ? previous.name : null);
+        event.put("trigger", trigger);
+        event.put("inputs", inputs());
+        event.put("options", next.options.toJson());
+        event.put("timestamp", System.currentTimeMillis());
+        listener.onRuleChanged(next.options, event);
+    }
+
+    private JSObject inputs() {
+        JSObject ret = new JSObject();
+        ret.put("battery", battery);
+        ret.put("charging", charging);
+        ret.put("thermal", thermal >= 0 && thermal < THERMAL_NAMES.length ? THERMAL_NAMES[thermal] : String.valueOf(thermal));
+        ret.put("speed", speed);
+        return ret;
+    }
+
+    // Executor for addThermalStatusListener that posts to a Handler
+    private static final class HandlerExecutor implements Executor {
+        private final Handler handler;
+
+        HandlerExecutor(Handler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void execute(@Nullable Runnable command) {
+            if (command != null) {
+                handler.post(command);
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package io.radar.capacitor;
+
+import android.location.Location;
+import android.os.Handler;
+
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.radar.sdk.Radar;
+
+/**
+ * Simplifies trajectories before they cross the bridge. Live clientLocation fixes go through an
+ * opening-window filter: a fix is held back while every fix since the last emitted one stays within
+ * tolerance meters of the straight line to the newest fix, and is emitted once that stops being
+ * true, so only the points that bend the path reach JS. Fixes closer than minDistance meters or
+ * minInterval ms to the previous accepted fix are dropped first, and a held fix is never delayed
+ * past maxInterval ms: if no later fix releases it, a timer on the handler hands it to the listener.
+ * History queries are simplified with Douglas-Peucker.
+ */
+final class RadarTrajectorySimplifier {
+
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+    private static final int MAX_WINDOW = 256;
+
+    static final class Fix {
+        final Location location;
+        final boolean stopped;
+        final Radar.RadarLocationSource source;
+
+        Fix(Location location, boolean stopped, Radar.RadarLocationSource source) {
+            this.location = location;
+            this.stopped = stopped;
+            this.source = source;
+        }
+    }
+
+    interface Listener {
+        // a held fix released by the maxInterval timer, on the handler's thread
+        void onFlush(Fix fix);
+    }
+
+    private final Handler handler;
+    private final Listener listener;
+
+    private volatile boolean enabled = false;
+    private double tolerance = 10;
+    private double minDistance = 0;
+    private long minInterval = 0;
+    private long maxInterval = 60000;
+
+    private boolean hasAnchor = false;
+    private double anchorLatitude;
+    private double anchorLongitude;
+    private long anchorTime;
+    private boolean anchorStopped;
+
+    private Location pendingLocation;
+    private boolean pendingStopped;
+    private Radar.RadarLocationSource pendingSource;
+
+    // fixes accepted since the anchor, the last one is the pending fix
+    private final double[] windowLatitudes = new double[MAX_WINDOW];
+    private final double[] windowLongitudes = new double[MAX_WINDOW];
+    private int windowSize = 0;
+
+    private long received = 0;
+    private long emitted = 0;
+    private long dropped = 0;
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            Fix fix;
+            synchronized (RadarTrajectorySimplifier.this) {
+                if (pendingLocation == null) {
+                    return;
+                }
+                fix = new Fix(pendingLocation, pendingStopped, pendingSource);
+                setAnchor(pendingLocation.getLatitude(), pendingLocation.getLongitude(), pendingLocation.getTime(),
+                    pendingStopped);
+                emitted++;
+            }
+            listener.onFlush(fix);
+        }
+    };
+
+    RadarTrajectorySimplifier(Handler handler, Listener listener) {
+        this.handler = handler;
+        this.listener = listener;
+    }
+
+    synchronized void configure(boolean enabled, double tolerance, double minDistance, long minInterval, long maxInterval) {
+        this.enabled = enabled;
+        this.tolerance = tolerance;
+        this.minDistance = minDistance;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        reset();
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    // the fixes to emit for this one, in order; usually none or one
+    synchronized List<Fix> offer(Location location, boolean stopped, Radar.RadarLocationSource source) {
+        received++;
+        double latitude = location.getLatitude();
+        double longitude = location.getLongitude();
+        long time = location.getTime();
+
+        if (!hasAnchor) {
+            setAnchor(latitude, longitude, time, stopped);
+            emitted++;
+            return Collections.singletonList(new Fix(location, stopped, source));
+        }
+
+        boolean lastStopped = pendingLocation != null ? pendingStopped : anchorStopped;
+        if (stopped == lastStopped && tooClose(latitude, longitude, time)) {
+            dropped++;
+            return Collections.emptyList();
+        }
+
+        boolean emitNow = stopped != lastStopped || time - anchorTime >= maxInterval;
+        List<Fix> ret = Collections.emptyList();
+        if (pendingLocation != null && (emitNow || windowSize == MAX_WINDOW || !withinTolerance(latitude, longitude))) {
+            ret = new ArrayList<>(2);
+            ret.add(new Fix(pendingLocation, pendingStopped, pendingSource));
+            setAnchor(pendingLocation.getLatitude(), pendingLocation.getLongitude(), pendingLocation.getTime(), pendingStopped);
+            emitted++;
+        } else if (pendingLocation != null) {
+            // the previous pending fix lies on the line to this one
+            dropped++;
+        }
+
+        if (emitNow) {
+            if (ret.isEmpty()) {
+                ret = new ArrayList<>(1);
+            }
+            ret.add(new Fix(location, stopped, source));
+            setAnchor(latitude, longitude, time, stopped);
+            emitted++;
+        } else {
+            pendingLocation = location;
+            pendingStopped = stopped;
+            pendingSource = source;
+            windowLatitudes[windowSize] = latitude;
+            windowLongitudes[windowSize] = longitude;
+            windowSize++;
+            if (windowSize == 1) {
+                // the anchor is fixed until the pending fix is released, so one timer covers the window
+                handler.postDelayed(flushRunnable, Math.max(0, anchorTime + maxInterval - time));
+            }
+        }
+        return ret;
+    }
+
+    synchronized void reset() {
+        handler.removeCallbacks(flushRunnable);
+        hasAnchor = false;
+        pendingLocation = null;
+        pendingSource = null;
+        windowSize = 0;
+    }
+
+    synchronized JSObject getStats() {
+        JSObject ret = new JSObject();
+        ret.put("enabled", enabled);
+        ret.put("received", received);
+        ret.put("emitted", emitted);
+        ret.put("dropped", dropped);
+        ret.put("reduction", received > 0 ? 1 - (double) emitted / received : 0);
+        return ret;
+    }
+
+    synchronized void resetStats() {
+        received = 0;
+        emitted = 0;
+        dropped = 0;
+    }
+
+    private void setAnchor(double latitude, double longitude, long time, boolean stopped) {
+        hasAnchor = true;
+        anchorLatitude = latitude;
+        anchorLongitude = longitude;
+        anchorTime = time;
+        anchorStopped = stopped;
+        handler.removeCallbacks(flushRunnable);
+        pendingLocation = null;
+        pendingSource = null;
+        windowSize = 0;
+    }
+
+    private boolean tooClose(double latitude, double longitude, long time) {
+        double lastLatitude = windowSize > 0 ? windowLatitudes[windowSize - 1] : anchorLatitude;
+        double lastLongitude = windowSize > 0 ? windowLongitudes[windowSize - 1] : anchorLongitude;
+        long lastTime = pendingLocation != null ? pendingLocation.getTime() : anchorTime;
+        if (minInterval > 0 && time - lastTime < minInterval) {
+            return true;
+        }
+        return minDistance > 0 && RadarGeo.distance(lastLatitude, lastLongitude, latitude, longitude) < minDistance;
+    }
+
+    private boolean withinTolerance(double latitude, double longitude) {
+        double cos = Math.cos(Math.toRadians(anchorLatitude));
+        double bx = x(longitude, anchorLongitude, cos);
+        double by = y(latitude, anchorLatitude);
+        for (int i = 0; i < windowSize; i++) {
+            double px = x(windowLongitudes[i], anchorLongitude, cos);
+            double py = y(windowLatitudes[i], anchorLatitude);
+            if (segmentDistance(px, py, 0, 0, bx, by) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the subset of indexes, in order, kept by Douglas-Peucker with tolerance in meters
+    static int[] douglasPeucker(double[] latitudes, double[] longitudes, int[] indexes, double tolerance) {
+        int n = indexes.length;
+        if (n <= 2 || tolerance <= 0) {
+            return indexes;
+        }
+
+        // equirectangular projection around the first point, accurate enough at path scale
+        double originLatitude = latitudes[indexes[0]];
+        double originLongitude = longitudes[indexes[0]];
+        double cos = Math.cos(Math.toRadians(originLatitude));
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int k = 0; k < n; k++) {
+            xs[k] = x(longitudes[indexes[k]], originLongitude, cos);
+            ys[k] = y(latitudes[indexes[k]], originLatitude);
+        }
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        int kept = 2;
+        // explicit stack of [first, last] ranges so long paths can't overflow the call stack
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            double maxDistance = 0;
+            int farthest = -1;
+            for (int k = first + 1; k < last; k++) {
+                double d = segmentDistance(xs[k], ys[k], xs[first], ys[first], xs[last], ys[last]);
+                if (d > maxDistance) {
+                    maxDistance = d;
+                    farthest = k;
+                }
+            }
+            if (farthest >= 0 && maxDistance > tolerance) {
+                keep[farthest] = true;
+                kept++;
+                stack[top++] = first;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+
+        int[] ret = new int[kept];
+        int j = 0;
+        for (int k = 0; k < n; k++) {
+            if (keep[k]) {
+                ret[j++] = indexes[k];
+            }
+        }
+        return ret;
+    }
+
+    private static double x(double longitude, double originLongitude, double cos) {
+        return Math.toRadians(longitude - originLongitude) * cos * EARTH_RADIUS_METERS;
+    }
+
+    private static double y(double latitude, double originLatitude) {
+        return Math.toRadians(latitude - originLatitude) * EARTH_RADIUS_METERS;
+    }
+
+    // distance from p to the segment a-b
+    private static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSquared : 0;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return Math.sqrt(ex * ex + ey * ey);
+    }
+}
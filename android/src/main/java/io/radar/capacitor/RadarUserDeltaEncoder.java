@@ -0,0 +1,159 @@
+package io.radar.capacitor;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import io.radar.sdk.model.RadarUser;
+
+/**
+ * Replaces the full user on listener payloads with a JSON merge patch (RFC 7386) against the last
+ * user sent to JS on the same channel. A full snapshot is sent every snapshotInterval messages, and
+ * userSeq lets JS detect a missed message and ask for a snapshot. Each channel ("location",
+ * "events") has its own base user and sequence, since the dispatcher may deliver them out of order
+ * relative to each other. As in RFC 7386, a null in the patch deletes the key, so a field the SDK
+ * sends as null is absent from the rebuilt user rather than null.
+ */
+final class RadarUserDeltaEncoder {
+
+    private static final class Channel {
+        JSONObject lastUser;
+        int sinceSnapshot = 0;
+        long seq = 0;
+    }
+
+    private boolean enabled = false;
+    private int snapshotInterval = 20;
+    private final Map<String, Channel> channels = new HashMap<>();
+
+    synchronized void configure(boolean enabled, int snapshotInterval) {
+        this.enabled = enabled;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        requestSnapshot();
+    }
+
+    synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    synchronized void requestSnapshot() {
+        for (Channel channel : channels.values()) {
+            channel.lastUser = null;
+            channel.sinceSnapshot = 0;
+        }
+    }
+
+    // called when the dispatcher drops or replaces a payload, so JS would miss a patch
+    synchronized void requestSnapshot(String channelName) {
+        Channel channel = channels.get(channelName);
+        if (channel != null) {
+            channel.lastUser = null;
+            channel.sinceSnapshot = 0;
+        }
+    }
+
+    synchronized void putUser(JSObject payload, String channelName, RadarUser user) {
+        if (user == null) {
+            return;
+        }
+        JSONObject userJson = user.toJson();
+        if (userJson == null) {
+            return;
+        }
+
+        Channel channel = channels.get(channelName);
+        if (channel == null) {
+            channel = new Channel();
+            channels.put(channelName, channel);
+        }
+        channel.seq++;
+        if (channel.lastUser == null || channel.sinceSnapshot >= snapshotInterval) {
+            payload.put("user", userJson);
+            channel.sinceSnapshot = 1;
+        } else {
+            payload.put("userDelta", diff(channel.lastUser, userJson));
+            channel.sinceSnapshot++;
+        }
+        payload.put("userChannel", channelName);
+        payload.put("userSeq", channel.seq);
+        channel.lastUser = userJson;
+    }
+
+    static JSONObject diff(JSONObject prev, JSONObject next) {
+        JSONObject patch = new JSONObject();
+        try {
+            Iterator<String> prevKeys = prev.keys();
+            while (prevKeys.hasNext()) {
+                String key = prevKeys.next();
+                if (!next.has(key)) {
+                    patch.put(key, JSONObject.NULL);
+                }
+            }
+
+            Iterator<String> nextKeys = next.keys();
+            while (nextKeys.hasNext()) {
+                String key = nextKeys.next();
+                Object a = prev.opt(key);
+                Object b = next.opt(key);
+                if (a instanceof JSONObject && b instanceof JSONObject) {
+                    JSONObject sub = diff((JSONObject) a, (JSONObject) b);
+                    if (sub.length() > 0) {
+                        patch.put(key, sub);
+                    }
+                } else if (!jsonEquals(a, b)) {
+                    patch.put(key, b);
+                }
+            }
+        } catch (JSONException e) {
+            // only thrown for non-finite numbers, which toJson() never produces
+        }
+        return patch;
+    }
+
+    static boolean jsonEquals(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        }
+        if (a instanceof JSONObject && b instanceof JSONObject) {
+            JSONObject objA = (JSONObject) a;
+            JSONObject objB = (JSONObject) b;
+            if (objA.length() != objB.length()) {
+                return false;
+            }
+            Iterator<String> keys = objA.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (!jsonEquals(objA.opt(key), objB.opt(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof JSONArray && b instanceof JSONArray) {
+            JSONArray arrA = (JSONArray) a;
+            JSONArray arrB = (JSONArray) b;
+            if (arrA.length() != arrB.length()) {
+                return false;
+            }
+            for (int i = 0; i < arrA.length(); i++) {
+                if (!jsonEquals(arrA.opt(i), arrB.opt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return a.equals(b);
+    }
+}
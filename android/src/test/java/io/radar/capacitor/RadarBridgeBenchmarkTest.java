@@ -0,0 +1,253 @@
+package io.radar.capacitor;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import io.radar.sdk.RadarTrackingOptions;
+import io.radar.sdk.RadarTripOptions;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Microbenchmarks for the bridge conversion helpers and option parsers, checked against
+ * src/test/resources/benchmark-baseline.json. Skipped unless run with -Pradar.benchmark=true.
+ * Every benchmark must stay under its ceilingNsPerOp entry, a coarse machine-independent limit
+ * roughly ten times the expected cost that catches complexity regressions rather than small
+ * slowdowns. Benchmarks with a recorded nsPerOp entry are also held to it within the tolerance.
+ * With -Pradar.benchmark.record=true the results are written to build/benchmark-baseline.json
+ * instead of being checked, along with the ceilings and a description of the machine that
+ * recorded them, to be copied over the committed baseline.
+ */
+public class RadarBridgeBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final long ROUND_NS = 100_000_000L;
+
+    private static volatile int sink;
+
+    private static final Map<String, Double> results = new LinkedHashMap<>();
+
+    private interface Op {
+        Object run() throws Exception;
+    }
+
+    @BeforeClass
+    public static void enabled() {
+        assumeTrue(Boolean.getBoolean("radar.benchmark") || Boolean.getBoolean("radar.benchmark.record"));
+    }
+
+    private static JSONObject point(double latitude, double longitude) throws Exception {
+        return new JSONObject()
+            .put("type", "Point")
+            .put("coordinates", new JSONArray().put(longitude).put(latitude));
+    }
+
+    // closed ring of vertexCount vertices around the point
+    private static JSONObject polygon(double latitude, double longitude, int vertexCount) throws Exception {
+        JSONArray ring = new JSONArray();
+        for (int i = 0; i <= vertexCount; i++) {
+            double angle = 2 * Math.PI * (i % vertexCount) / vertexCount;
+            ring.put(new JSONArray()
+                .put(longitude + 0.01 * Math.cos(angle))
+                .put(latitude + 0.01 * Math.sin(angle)));
+        }
+        return new JSONObject().put("type", "Polygon").put("coordinates", new JSONArray().put(ring));
+    }
+
+    private static JSONObject geofence(int i, int vertexCount) throws Exception {
+        return new JSONObject()
+            .put("_id", "geofence-" + i)
+            .put("description", "Store #" + i)
+            .put("tag", "store")
+            .put("externalId", String.valueOf(i))
+            .put("type", "polygon")
+            .put("geometryCenter", point(40.7484, -73.9857))
+            .put("geometry", polygon(40.7484, -73.9857, vertexCount))
+            .put("metadata", new JSONObject().put("region", i % 4).put("open", true));
+    }
+
+    private static JSONObject user(int geofenceCount) throws Exception {
+        JSONArray geofences = new JSONArray();
+        for (int i = 0; i < geofenceCount; i++) {
+            geofences.put(geofence(i, 8));
+        }
+        return new JSONObject()
+            .put("_id", "5f9b1c2d3e4f5a6b7c8d9e0f")
+            .put("userId", "user-1234")
+            .put("deviceId", "C305F2DB-56DC-404F-B6C1-BC52F0B680D8")
+            .put("description", "Jane Doe")
+            .put("metadata", new JSONObject().put("plan", "pro").put("visits", 42).put("vip", true))
+            .put("location", point(40.7484, -73.9857))
+            .put("locationAccuracy", 12.5)
+            .put("geofences", geofences)
+            .put("segments", new JSONArray()
+                .put(new JSONObject().put("description", "Starbucks Visitors").put("externalId", "starbucks-visitors")))
+            .put("country", new JSONObject().put("_id", "c1").put("type", "country").put("code", "US").put("name", "United States"))
+            .put("state", new JSONObject().put("_id", "s1").put("type", "state").put("code", "NY").put("name", "New York"))
+            .put("stopped", false)
+            .put("foreground", true)
+            .put("source", "FOREGROUND_LOCATION");
+    }
+
+    private static JSONArray events(int count) throws Exception {
+        JSONArray events = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            events.put(new JSONObject()
+                .put("_id", "event-" + i)
+                .put("type", i % 2 == 0 ? "user.entered_geofence" : "user.exited_geofence")
+                .put("live", false)
+                .put("confidence", 3)
+                .put("duration", 12.5 * i)
+                .put("geofence", geofence(i, 8))
+                .put("location", point(40.7484, -73.9857))
+                .put("locationAccuracy", 10)
+                .put("createdAt", "2024-01-01T00:00:00.000Z")
+                .put("actualCreatedAt", "2024-01-01T00:00:00.000Z"));
+        }
+        return events;
+    }
+
+    private static JSObject jsObject(JSONObject obj) throws Exception {
+        return new JSObject(obj.toString());
+    }
+
+    private static double measure(String name, Op op) throws Exception {
+        double[] nsPerOp = new double[ROUNDS];
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            long ops = 0;
+            long startedAt = System.nanoTime();
+            long elapsed;
+            do {
+                Object result = op.run();
+                sink += result != null ? System.identityHashCode(result) : 0;
+                ops++;
+                elapsed = System.nanoTime() - startedAt;
+            } while (elapsed < ROUND_NS);
+            if (round >= 0) {
+                nsPerOp[round] = (double) elapsed / ops;
+            }
+        }
+        Arrays.sort(nsPerOp);
+        double median = nsPerOp[ROUNDS / 2];
+        results.put(name, median);
+        System.out.println(String.format("%-40s %14.0f ns/op", name, median));
+        return median;
+    }
+
+    private static String machine() {
+        return System.getProperty("os.name") + " " + System.getProperty("os.arch") + ", "
+            + Runtime.getRuntime().availableProcessors() + " cpus, " + System.getProperty("java.vm.name") + " "
+            + System.getProperty("java.version");
+    }
+
+    private static JSONObject baseline() throws Exception {
+        try (InputStream in = RadarBridgeBenchmarkTest.class.getClassLoader().getResourceAsStream("benchmark-baseline.json")) {
+            assertNotNull("benchmark-baseline.json is missing", in);
+            return new JSONObject(new Scanner(in, "UTF-8").useDelimiter("\\A").next());
+        }
+    }
+
+    @Test
+    public void bridgeHelpers_withinBaseline() throws Exception {
+        JSONObject user = user(500);
+        JSONArray events = events(150);
+        JSONObject geofence = geofence(0, 2000);
+        JSObject userObj = jsObject(user);
+        Object[] geofences = new Object[100];
+        for (int i = 0; i < geofences.length; i++) {
+            geofences[i] = geofence(i, 8);
+        }
+        JSArray tags = new JSArray();
+        for (int i = 0; i < 100; i++) {
+            tags.put("tag-" + i);
+        }
+        JSObject metadata = new JSObject();
+        for (int i = 0; i < 100; i++) {
+            metadata.put("key-" + i, "value-" + i);
+        }
+        JSONObject trackingOptions = RadarTrackingOptions.CONTINUOUS.toJson();
+        JSONObject tripOptions = new JSONObject()
+            .put("externalId", "trip-1234")
+            .put("metadata", new JSONObject().put("order", "1234").put("items", 3))
+            .put("destinationGeofenceTag", "store")
+            .put("destinationGeofenceExternalId", "123")
+            .put("mode", "car")
+            .put("scheduledArrivalAt", "2024-01-01T12:00:00.000Z")
+            .put("approachingThreshold", 2);
+
+        measure("jsObjectForJSONObject.user500", () -> RadarPlugin.jsObjectForJSONObject(user));
+        measure("jsObjectForJSONObject.geofence2000", () -> RadarPlugin.jsObjectForJSONObject(geofence));
+        measure("jsonObjectForJSObject.user500", () -> RadarPlugin.jsonObjectForJSObject(userObj));
+        measure("jsArrayForJSONArray.events150", () -> RadarPlugin.jsArrayForJSONArray(events));
+        measure("jsArrayForArray.geofences100", () -> RadarPlugin.jsArrayForArray(geofences));
+        measure("stringArrayForJSArray.tags100", () -> RadarPlugin.stringArrayForJSArray(tags));
+        measure("stringMapForJSObject.metadata100", () -> RadarPlugin.stringMapForJSObject(metadata));
+        measure("RadarTrackingOptions.fromJson", () -> RadarTrackingOptions.fromJson(trackingOptions));
+        measure("RadarTripOptions.fromJson", () -> RadarTripOptions.fromJson(tripOptions));
+
+        if (Boolean.getBoolean("radar.benchmark.record")) {
+            JSONObject recorded = new JSONObject();
+            for (Map.Entry<String, Double> entry : results.entrySet()) {
+                recorded.put(entry.getKey(), Math.round(entry.getValue()));
+            }
+            File file = new File("build/benchmark-baseline.json");
+            try (Writer writer = new FileWriter(file)) {
+                writer.write(new JSONObject()
+                    .put("recordedOn", machine())
+                    .put("nsPerOp", recorded)
+                    .put("ceilingNsPerOp", baseline().getJSONObject("ceilingNsPerOp"))
+                    .toString(2));
+            }
+            System.out.println("recorded " + file.getAbsolutePath());
+            return;
+        }
+
+        double tolerance = Double.parseDouble(System.getProperty("radar.benchmark.tolerance", "0.25"));
+        JSONObject baseline = baseline();
+        JSONObject expected = baseline.getJSONObject("nsPerOp");
+        JSONObject ceilings = baseline.getJSONObject("ceilingNsPerOp");
+        System.out.println("baseline recorded on " + baseline.opt("recordedOn") + ", running on " + machine());
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : results.entrySet()) {
+            String name = entry.getKey();
+            assertTrue("no ceiling for " + name, ceilings.has(name));
+            double ceiling = ceilings.getDouble(name);
+            if (entry.getValue() > ceiling) {
+                regressions.add(String.format("%s: %.0f ns/op > ceiling %.0f", name, entry.getValue(), ceiling));
+            }
+            if (!expected.has(name)) {
+                System.out.println("no recorded baseline for " + name + ", record one with -Pradar.benchmark.record=true");
+            }
+        }
+        Iterator<String> names = expected.keys();
+        while (names.hasNext()) {
+            String name = names.next();
+            Double measured = results.get(name);
+            assertNotNull("no result for baseline entry " + name, measured);
+            double limit = expected.getDouble(name) * (1 + tolerance);
+            if (measured > limit) {
+                regressions.add(String.format("%s: %.0f ns/op > %.0f", name, measured, limit));
+            }
+        }
+        assertTrue("regressions against baseline:\n" + String.join("\n", regressions), regressions.isEmpty());
+    }
+}
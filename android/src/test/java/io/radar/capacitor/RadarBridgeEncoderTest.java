@@ -0,0 +1,116 @@
+package io.radar.capacitor;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RadarBridgeEncoderTest {
+
+    private static JSONObject user(int geofenceCount) throws Exception {
+        JSONObject user = new JSONObject();
+        user.put("_id", "5f9b1c2d3e4f5a6b7c8d9e0f");
+        user.put("userId", "user-1234");
+        user.put("deviceId", "C305F2DB-56DC-404F-B6C1-BC52F0B680D8");
+        user.put("description", "Jane Doe");
+        user.put("metadata", new JSONObject().put("plan", "pro").put("visits", 42).put("vip", true));
+        user.put("location", new JSONObject()
+            .put("type", "Point")
+            .put("coordinates", new JSONArray().put(-73.9857).put(40.7484)));
+        JSONArray geofences = new JSONArray();
+        for (int i = 0; i < geofenceCount; i++) {
+            geofences.put(new JSONObject()
+                .put("_id", "geofence-" + i)
+                .put("description", "Store #" + i)
+                .put("tag", "store")
+                .put("externalId", String.valueOf(i))
+                .put("metadata", new JSONObject().put("region", i % 4)));
+        }
+        user.put("geofences", geofences);
+        user.put("segments", new JSONArray()
+            .put(new JSONObject().put("description", "Starbucks Visitors").put("externalId", "starbucks-visitors")));
+        user.put("country", new JSONObject().put("_id", "c1").put("type", "country").put("code", "US").put("name", "United States"));
+        user.put("stopped", false);
+        user.put("foreground", true);
+        user.put("source", "FOREGROUND_LOCATION");
+        user.put("trip", JSONObject.NULL);
+        return user;
+    }
+
+    private static JSONArray events(int count) throws Exception {
+        JSONArray events = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            events.put(new JSONObject()
+                .put("_id", "event-" + i)
+                .put("type", i % 2 == 0 ? "user.entered_geofence" : "user.exited_geofence")
+                .put("live", false)
+                .put("confidence", 3)
+                .put("duration", 12.5 * i)
+                .put("geofence", new JSONObject().put("_id", "geofence-" + i).put("tag", "store"))
+                .put("createdAt", "2024-01-01T00:00:00.000Z"));
+        }
+        return events;
+    }
+
+    @Test
+    public void putObject_matchesLegacyConversion() throws Exception {
+        JSONObject user = user(50);
+
+        JSObject legacy = new JSObject();
+        legacy.put("user", RadarPlugin.jsObjectForJSONObject(user));
+        JSObject encoded = RadarBridgeEncoder.putObject(new JSObject(), "user", user);
+
+        assertEquals(legacy.toString(), encoded.toString());
+    }
+
+    @Test
+    public void putArray_matchesLegacyConversion() throws Exception {
+        JSONArray events = events(150);
+
+        JSObject legacy = new JSObject();
+        legacy.put("events", RadarPlugin.jsArrayForJSONArray(events));
+        legacy.put("user", RadarPlugin.jsObjectForJSONObject(user(5)));
+        JSObject encoded = new JSObject();
+        RadarBridgeEncoder.putArray(encoded, "events", events);
+        RadarBridgeEncoder.putObject(encoded, "user", user(5));
+
+        assertEquals(legacy.toString(), encoded.toString());
+    }
+
+    @Test
+    public void putArray_emptyMatchesLegacyConversion() throws Exception {
+        JSObject legacy = new JSObject();
+        legacy.put("events", RadarPlugin.jsArrayForJSONArray(new JSONArray()));
+        JSObject encoded = RadarBridgeEncoder.putArray(new JSObject(), "events", new JSONArray());
+
+        assertEquals(legacy.toString(), encoded.toString());
+    }
+
+    @Test
+    public void putArray_nonObjectElementIsDroppedLikeLegacyConversion() throws Exception {
+        JSONArray mixed = new JSONArray().put(new JSONObject().put("_id", "a")).put("b");
+
+        JSObject legacy = new JSObject();
+        legacy.put("events", RadarPlugin.jsArrayForJSONArray(mixed));
+        JSObject encoded = RadarBridgeEncoder.putArray(new JSObject(), "events", mixed);
+
+        assertEquals(legacy.toString(), encoded.toString());
+        assertFalse(encoded.has("events"));
+    }
+
+    @Test
+    public void nullValuesAreOmitted() throws Exception {
+        JSObject legacy = new JSObject();
+        legacy.put("user", RadarPlugin.jsObjectForJSONObject(null));
+        legacy.put("events", RadarPlugin.jsArrayForJSONArray(null));
+        JSObject encoded = new JSObject();
+        RadarBridgeEncoder.putObject(encoded, "user", null);
+        RadarBridgeEncoder.putArray(encoded, "events", null);
+
+        assertEquals(legacy.toString(), encoded.toString());
+        assertEquals("{}", encoded.toString());
+    }
+}
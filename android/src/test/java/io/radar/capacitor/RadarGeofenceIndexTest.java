@@ -0,0 +1,88 @@
+package io.radar.capacitor;
+
+import com.getcapacitor.JSArray;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RadarGeofenceIndexTest {
+
+    // lat, lng pairs of a closed square from 40.00 to 40.01 and -74.00 to -73.99
+    private static final double[] SQUARE = {
+        40.00, -74.00,
+        40.00, -73.99,
+        40.01, -73.99,
+        40.01, -74.00,
+        40.00, -74.00
+    };
+
+    private static JSONObject point(double latitude, double longitude) throws Exception {
+        return new JSONObject()
+            .put("type", "Point")
+            .put("coordinates", new JSONArray().put(longitude).put(latitude));
+    }
+
+    private static JSONObject geofence(String id, String type) throws Exception {
+        return new JSONObject()
+            .put("_id", id)
+            .put("tag", "store")
+            .put("type", type)
+            .put("geometryCenter", point(40.005, -73.995))
+            .put("geometryRadius", 1000);
+    }
+
+    private static JSONObject polygon(String id) throws Exception {
+        JSONArray ring = new JSONArray();
+        for (int i = 0; i < SQUARE.length; i += 2) {
+            ring.put(new JSONArray().put(SQUARE[i + 1]).put(SQUARE[i]));
+        }
+        return geofence(id, "polygon")
+            .put("geometry", new JSONObject().put("type", "Polygon").put("coordinates", new JSONArray().put(ring)));
+    }
+
+    private static String[] ids(JSArray geofences) throws Exception {
+        String[] ids = new String[geofences.length()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = geofences.getJSONObject(i).getString("_id");
+        }
+        return ids;
+    }
+
+    @Test
+    public void containsPoint_insideAndOutsideSquare() {
+        assertTrue(RadarGeofenceIndex.containsPoint(SQUARE, 0, SQUARE.length, 40.005, -73.995));
+        assertTrue(RadarGeofenceIndex.containsPoint(SQUARE, 0, SQUARE.length, 40.0001, -73.9999));
+        assertFalse(RadarGeofenceIndex.containsPoint(SQUARE, 0, SQUARE.length, 40.02, -73.995));
+        assertFalse(RadarGeofenceIndex.containsPoint(SQUARE, 0, SQUARE.length, 40.005, -74.001));
+    }
+
+    @Test
+    public void query_matchesPolygonByRingNotRadius() throws Exception {
+        RadarGeofenceIndex index = new RadarGeofenceIndex();
+        assertEquals(1, index.addAll(new JSONArray().put(polygon("polygon"))));
+
+        assertArrayEquals(new String[] { "polygon" }, ids(index.query(40.005, -73.995)));
+        // within geometryRadius of the centre but outside the ring
+        assertArrayEquals(new String[0], ids(index.query(40.012, -73.995)));
+    }
+
+    @Test
+    public void addAll_skipsPolygonWithoutRing() throws Exception {
+        RadarGeofenceIndex index = new RadarGeofenceIndex();
+        JSONArray geofences = new JSONArray()
+            .put(geofence("circle", "circle"))
+            .put(geofence("isochrone", "isochrone"))
+            .put(geofence("polygon", "polygon"));
+
+        assertEquals(1, index.addAll(geofences));
+        assertEquals(1, index.size());
+        assertEquals(2, index.skipped());
+        assertArrayEquals(new String[] { "circle" }, ids(index.query(40.005, -73.995)));
+
+        index.clear();
+        assertEquals(0, index.skipped());
+    }
+}
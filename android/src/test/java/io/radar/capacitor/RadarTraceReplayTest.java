@@ -0,0 +1,42 @@
+package io.radar.capacitor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RadarTraceReplayTest {
+
+    // 2024-05-01T12:00:00Z
+    private static final long NOON_UTC = 1714564800000L;
+
+    @Test
+    public void parseTime_utc() {
+        assertEquals(NOON_UTC, RadarTraceReplay.parseTime("2024-05-01T12:00:00Z"));
+        // no designator is taken as UTC
+        assertEquals(NOON_UTC, RadarTraceReplay.parseTime("2024-05-01T12:00:00"));
+    }
+
+    @Test
+    public void parseTime_offsets() {
+        assertEquals(NOON_UTC, RadarTraceReplay.parseTime("2024-05-01T14:00:00+02:00"));
+        assertEquals(NOON_UTC, RadarTraceReplay.parseTime("2024-05-01T14:00:00+0200"));
+        assertEquals(NOON_UTC, RadarTraceReplay.parseTime("2024-05-01T14:00:00+02"));
+        assertEquals(NOON_UTC, RadarTraceReplay.parseTime("2024-05-01T07:30:00-04:30"));
+    }
+
+    @Test
+    public void parseTime_fractionalSeconds() {
+        assertEquals(NOON_UTC + 250, RadarTraceReplay.parseTime("2024-05-01T12:00:00.25Z"));
+        assertEquals(NOON_UTC + 123, RadarTraceReplay.parseTime("2024-05-01T12:00:00.123456Z"));
+        assertEquals(NOON_UTC + 500, RadarTraceReplay.parseTime("2024-05-01T14:00:00.5+02:00"));
+    }
+
+    @Test
+    public void parseTime_rejectsMalformed() {
+        assertEquals(-1, RadarTraceReplay.parseTime("not a time"));
+        assertEquals(-1, RadarTraceReplay.parseTime("2024-05-01T12:00:00 UTC"));
+        assertEquals(-1, RadarTraceReplay.parseTime("2024-05-01T12:00:00.Z"));
+        assertEquals(-1, RadarTraceReplay.parseTime("2024-05-01T12:00:00+2:00"));
+        assertEquals(-1, RadarTraceReplay.parseTime("2024-05-01T12:00:00Zjunk"));
+    }
+}
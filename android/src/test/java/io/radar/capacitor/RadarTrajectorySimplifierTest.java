@@ -0,0 +1,102 @@
+package io.radar.capacitor;
+
+import android.location.Location;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.radar.sdk.Radar;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class RadarTrajectorySimplifierTest {
+
+    private static final Radar.RadarLocationSource SOURCE = Radar.RadarLocationSource.FOREGROUND_LOCATION;
+
+    private final List<RadarTrajectorySimplifier.Fix> flushed = new ArrayList<>();
+
+    private RadarTrajectorySimplifier simplifier(long maxInterval) {
+        RadarTrajectorySimplifier simplifier = new RadarTrajectorySimplifier(new Handler(Looper.getMainLooper()),
+            fix -> flushed.add(fix));
+        simplifier.configure(true, 10, 0, 0, maxInterval);
+        return simplifier;
+    }
+
+    private static Location location(double latitude, double longitude, long time) {
+        Location location = new Location("test");
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setTime(time);
+        return location;
+    }
+
+    @Test
+    public void offer_releasesHeldFixWhenNextFixIsPastMaxInterval() {
+        RadarTrajectorySimplifier simplifier = simplifier(60000);
+        Location anchor = location(40.0, -74.0, 0);
+        Location held = location(40.0, -73.999, 1000);
+        Location late = location(40.0, -73.998, 70000);
+
+        assertEquals(1, simplifier.offer(anchor, false, SOURCE).size());
+        assertTrue(simplifier.offer(held, false, SOURCE).isEmpty());
+
+        List<RadarTrajectorySimplifier.Fix> released = simplifier.offer(late, false, SOURCE);
+        assertEquals(2, released.size());
+        assertSame(held, released.get(0).location);
+        assertSame(late, released.get(1).location);
+    }
+
+    @Test
+    public void offer_timerFlushesHeldFixAfterMaxInterval() {
+        RadarTrajectorySimplifier simplifier = simplifier(60000);
+        Location held = location(40.0, -73.999, 1000);
+        simplifier.offer(location(40.0, -74.0, 0), false, SOURCE);
+        simplifier.offer(held, false, SOURCE);
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(58000));
+        assertTrue(flushed.isEmpty());
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(1000));
+        assertEquals(1, flushed.size());
+        assertSame(held, flushed.get(0).location);
+    }
+
+    @Test
+    public void douglasPeucker_collapsesCollinearPath() {
+        double[] latitudes = new double[10];
+        double[] longitudes = new double[10];
+        int[] indexes = new int[10];
+        for (int i = 0; i < 10; i++) {
+            latitudes[i] = 40.0;
+            longitudes[i] = -74.0 + i * 0.001;
+            indexes[i] = i;
+        }
+
+        assertArrayEquals(new int[] { 0, 9 },
+            RadarTrajectorySimplifier.douglasPeucker(latitudes, longitudes, indexes, 1));
+    }
+
+    @Test
+    public void douglasPeucker_keepsPointBeyondTolerance() {
+        double[] latitudes = { 40.0, 40.0, 40.001, 40.0, 40.0 };
+        double[] longitudes = { -74.0, -73.999, -73.998, -73.997, -73.996 };
+        int[] indexes = { 0, 1, 2, 3, 4 };
+
+        // the middle point is about 111 m off the line between the ends, its neighbours about 47 m off its legs
+        assertArrayEquals(new int[] { 0, 2, 4 },
+            RadarTrajectorySimplifier.douglasPeucker(latitudes, longitudes, indexes, 50));
+        assertArrayEquals(new int[] { 0, 4 },
+            RadarTrajectorySimplifier.douglasPeucker(latitudes, longitudes, indexes, 200));
+    }
+}
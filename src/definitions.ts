@@ -2,14 +2,18 @@ import type { PluginListenerHandle } from '@capacitor/core';
 
 export interface RadarPlugin {
   addListener(eventName: 'clientLocation', listenerFunc: (result: { location: Location, stopped: boolean, source: string }) => void): Promise<PluginListenerHandle>;
-  addListener(eventName: 'location', listenerFunc: (result: { location: Location, user: RadarUser }) => void): Promise<PluginListenerHandle>;
-  addListener(eventName: 'events', listenerFunc: (result: { events: RadarEvent[], user: RadarUser }) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'location', listenerFunc: (result: { location: Location, user?: RadarUser, userDelta?: object, userChannel?: string, userSeq?: number }) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'events', listenerFunc: (result: { events: RadarEvent[], user?: RadarUser, userDelta?: object, userChannel?: string, userSeq?: number }) => void): Promise<PluginListenerHandle>;
   addListener(eventName: 'error', listenerFunc: (result: { status: string }) => void): Promise<PluginListenerHandle>;
-  addListener(eventName: 'log', listenerFunc: (result: { message: string }) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'log', listenerFunc: (result: { message: string, count?: number }) => void): Promise<PluginListenerHandle>;
   addListener(eventName: 'token', listenerFunc: (result: { token: RadarVerifiedLocationToken }) => void): Promise<PluginListenerHandle>;
   addListener(eventName: 'inAppMessage', listenerFunc: (result: { message: RadarInAppMessage }) => void): Promise<PluginListenerHandle>;
   addListener(eventName: 'inAppMessageDismissed', listenerFunc: (result: { message: RadarInAppMessage }) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'geocodeBatchResult', listenerFunc: (result: RadarGeocodeBatchResult) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'contextUpdated', listenerFunc: (result: RadarContextCallback) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'conversionLogged', listenerFunc: (result: { status: string, id: string, name: string, event?: RadarEvent }) => void): Promise<PluginListenerHandle>;
   addListener(eventName: 'inAppMessageButtonClicked', listenerFunc: (result: { message: RadarInAppMessage }) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'trackingPresetChanged', listenerFunc: (result: RadarTrackingGovernorEvent) => void): Promise<PluginListenerHandle>; // Android only
   initialize(options: { publishableKey: string, options?: RadarInitializeOptions }): void;
   initializeWithAppGroup(options: { appGroup: string }): void;
   nativeSetup(options?: { options?: RadarInitializeOptions }): void;
@@ -33,8 +37,9 @@ export interface RadarPlugin {
   getLocationPermissionsStatus(): Promise<RadarLocationPermissionsCallback>;
   requestLocationPermissions(options: { background: boolean }): void;
   requestMotionActivityPermission(): void;
-  getLocation(options: { desiredAccuracy: RadarTrackingOptionsDesiredAccuracy }): Promise<RadarLocationCallback>;
-  trackOnce(options?: Location | { desiredAccuracy: RadarTrackingOptionsDesiredAccuracy, beacons: boolean}): Promise<RadarTrackCallback>;
+  // maxAge (Android only): reuse a fix at least as accurate and no older than maxAge ms
+  getLocation(options: { desiredAccuracy: RadarTrackingOptionsDesiredAccuracy, maxAge?: number }): Promise<RadarLocationCallback>;
+  trackOnce(options?: Location | { desiredAccuracy?: RadarTrackingOptionsDesiredAccuracy, beacons?: boolean, maxAge?: number }): Promise<RadarTrackCallback>;
   trackVerified(options?: { beacons?: boolean, desiredAccuracy?: RadarTrackingOptionsDesiredAccuracy, reason?: string, transactionId?: string }): Promise<RadarTrackVerifiedCallback>;
   getVerifiedLocationToken(options?: { beacons?: boolean, desiredAccuracy?: RadarTrackingOptionsDesiredAccuracy }): Promise<RadarTrackVerifiedCallback>;
   isTrackingVerified(): Promise<{ isTrackingVerified: boolean }>;
@@ -45,6 +50,8 @@ export interface RadarPlugin {
   startTrackingResponsive(): void;
   startTrackingContinuous(): void;
   startTrackingCustom(options: { options: RadarTrackingOptions}): void;
+  // replays an NDJSON or GPX trace, path is relative to the app's files directory unless absolute; speed 0 replays as fast as possible; stopTracking ends it early
+  mockTracking(options: { path: string, format?: 'ndjson' | 'gpx', speed?: number, interval?: number }): Promise<RadarTraceReplayResult>; // Android only
   mockTracking(options: { origin: Location, destination: Location, mode: RadarRouteMode, steps: number, interval: number }): void;
   stopTracking(): void;
   stopTrackingVerified(): void;
@@ -62,13 +69,18 @@ export interface RadarPlugin {
   getContext(options?: Location): Promise<RadarContextCallback>;
   searchPlaces(options: { near?: Location, radius: number, chains?: string[], chainMetadata?: object, categories?: string[], groups?: string[], countryCodes?: string[], limit: number }): Promise<RadarSearchPlacesCallback>;
   searchGeofences(options: { near?: Location, radius?: number, metadata?: object, tags?: string[], limit?: number, includeGeometry: boolean }): Promise<RadarSearchGeofencesCallback>;
-  autocomplete(options: { query: string, near?: Location, layers?: string[], limit: number, country?: string, expandUnits?: boolean, mailable?: boolean }): Promise<RadarGeocodeCallback>;
+  autocomplete(options: { query: string, near?: Location, layers?: string[], limit: number, country?: string, expandUnits?: boolean, mailable?: boolean, sessionId?: string, debounce?: number }): Promise<RadarAutocompleteCallback>;
+  cancelAutocomplete(options: { sessionId: string }): void; // Android only
   validateAddress(options: { address: RadarAddress }): Promise<RadarValidateAddressCallback>;
   geocode(options: { query: string, layers?: string[], countries?: string[] }): Promise<RadarGeocodeCallback>;
   reverseGeocode(options?: { location?: Location, layers?: string[] }): Promise<RadarGeocodeCallback>;
+  geocodeBatch(options: { queries: string[], layers?: string[], countries?: string[], concurrency?: number, batchId?: string }): Promise<RadarGeocodeBatchSummary>; // Android only
+  reverseGeocodeBatch(options: { locations: Location[], layers?: string[], concurrency?: number, batchId?: string }): Promise<RadarGeocodeBatchSummary>; // Android only
   ipGeocode(): Promise<RadarIPGeocodeCallback>;
+  getDistance(options: { origin?: Location, destination: Location, modes: string[], units: string, format: 'packed' }): Promise<RadarPackedRoutes>; // Android only
   getDistance(options: { origin?: Location, destination: Location, modes: string[], units: string }): Promise<RadarRouteCallback>;
-  getMatrix(options: { origins?: Location[], destinations?: Location[], mode: string, units: string }): Promise<RadarRouteMatrix>;
+  getMatrix(options: RadarMatrixOptions & { format: 'packed' }): Promise<RadarPackedMatrix>; // Android only
+  getMatrix(options: RadarMatrixOptions): Promise<RadarRouteMatrix>;
   logConversion(options: { name: string, revenue?: number, metadata?: object }): Promise<RadarLogConversionCallback>;
   didReceivePushNotificationPayload(options: { payload: object }): void;
   logTermination(): void; // iOS only
@@ -76,17 +88,65 @@ export interface RadarPlugin {
   logResigningActive(): void;
   setNotificationOptions(options: RadarNotificationOptions): void; // Android only
   showInAppMessage(options: { message: RadarInAppMessage }): void;
-  loadImage(options: { url: string }): Promise<{ image: string }>;
+  // mode 'file' (Android only) caches the image on disk and returns a path, use webPath as an img src
+  loadImage(options: { url: string, mode: 'file', maxWidth?: number, maxHeight?: number }): Promise<{ path: string, uri: string, webPath: string }>;
+  loadImage(options: { url: string, maxWidth?: number, maxHeight?: number }): Promise<{ image: string }>;
   stringForActivityType(options: { type: string }): Promise<{ activityType: string }>;
   isUsingRemoteTrackingOptions(): Promise<object>;
   getHost(): Promise<object>;
   getPublishableKey(): Promise<{ publishableKey: string }>;
+  setListenerDispatchOptions(options: RadarListenerDispatchOptions): void; // Android only
+  getListenerDispatchStats(options?: { reset?: boolean }): Promise<RadarListenerDispatchStats>; // Android only
+  setEventsDeliveryOptions(options: RadarEventsDeliveryOptions): void; // Android only
+  setUserDeltaOptions(options: { enabled: boolean, snapshotInterval?: number }): void; // Android only
+  requestUserSnapshot(): void; // Android only
+  setConversionOutboxOptions(options: RadarConversionOutboxOptions): void; // Android only
+  getConversionOutboxStatus(): Promise<RadarConversionOutboxStatus>; // Android only
+  setGeocodeCacheOptions(options: RadarGeocodeCacheOptions): void; // Android only
+  getGeocodeCacheStats(options?: { reset?: boolean }): Promise<RadarCacheStats>; // Android only
+  clearGeocodeCache(): void; // Android only
+  setContextCacheOptions(options: RadarContextCacheOptions): void; // Android only
+  getContextCacheStats(options?: { reset?: boolean }): Promise<RadarCacheStats>; // Android only
+  clearContextCache(): void; // Android only
+  setSearchCacheOptions(options: { enabled?: boolean, maxEntries?: number, ttl?: number }): void; // Android only
+  getSearchCacheStats(options?: { reset?: boolean }): Promise<RadarCacheStats>; // Android only
+  clearSearchCache(): void; // Android only
+  setGeofenceIndexOptions(options: { enabled?: boolean, maxGeofences?: number }): void; // Android only
+  queryLocalGeofences(options: { latitude: number, longitude: number }): Promise<RadarLocalGeofencesCallback>; // Android only
+  clearLocalGeofences(): void; // Android only
+  setPluginMetricsOptions(options: { enabled?: boolean, dumpInterval?: number }): void; // Android only
+  getPluginMetrics(): Promise<RadarPluginMetrics>; // Android only
+  resetPluginMetrics(): void; // Android only
+  setTracingEnabled(options: { enabled: boolean }): void; // Android only
+  setSerializationOptions(options: { offMainThread?: boolean, strict?: boolean }): void; // Android only
+  setSingleFlightOptions(options: { enabled?: boolean }): void; // Android only
+  getSingleFlightStats(): Promise<{ enabled: boolean, started: number, joined: number, freshHits: number, inFlight: number }>; // Android only
+  setLocationHistoryOptions(options: { enabled?: boolean, capacity?: number }): void; // Android only
+  // since and until are epoch ms, decode the result with decodeLocationHistory
+  // tolerance is in meters and simplifies the path with Douglas-Peucker before maxPoints is applied
+  getLocationHistory(options?: { since?: number, until?: number, tolerance?: number, maxPoints?: number }): Promise<RadarPackedLocationHistory>; // Android only
+  clearLocationHistory(): void; // Android only
+  setTrajectoryOptions(options: RadarTrajectoryOptions): void; // Android only
+  getTrajectoryStats(options?: { reset?: boolean }): Promise<{ enabled: boolean, received: number, emitted: number, dropped: number, reduction: number }>; // Android only
+  // debuggable builds only; rate is callbacks per second, 0 runs as fast as listeners keep up, duration is in ms
+  runReceiverLoadTest(options: RadarReceiverLoadTestOptions): Promise<RadarReceiverLoadTestResult>; // Android only
+  setImageCacheOptions(options: { maxMemoryBytes?: number, maxDiskBytes?: number, ttl?: number }): void; // Android only
+  getImageCacheStats(options?: { reset?: boolean }): Promise<{ memoryHits: number, diskHits: number, misses: number, expired: number, hitRate: number, memoryBytes: number, memoryEntries: number, diskBytes: number }>; // Android only
+  clearImageCache(): void; // Android only
+  // caches in-app message images as messages arrive so loadImage calls made while rendering them hit the cache
+  setInAppMessagePrefetchOptions(options: { enabled?: boolean, maxConcurrent?: number }): void; // Android only
+  getInAppMessagePrefetchStats(options?: { reset?: boolean }): Promise<RadarInAppMessagePrefetchStats>; // Android only
+  // starts tracking with the first matching rule and switches as inputs change; stopping the governor leaves tracking running
+  startTrackingGovernor(options?: RadarTrackingGovernorOptions): void; // Android only
+  stopTrackingGovernor(): void; // Android only
+  getTrackingGovernorState(): Promise<RadarTrackingGovernorState>; // Android only
 }
 
 export interface RadarLocationCallback {
   status: string;
   location?: Location;
   stopped?: boolean;
+  cached?: boolean; // Android only
 }
 
 export interface RadarTrackCallback {
@@ -111,18 +171,22 @@ export interface RadarContextCallback {
   status: string;
   location?: Location;
   context?: RadarContext;
+  // Android only: set when served from the context cache, true if a background refresh was started
+  stale?: boolean;
 }
 
 export interface RadarSearchPlacesCallback {
   status: string;
   location?: Location;
   places?: RadarPlace[];
+  cached?: boolean; // Android only
 }
 
 export interface RadarSearchGeofencesCallback {
   status: string;
   location?: Location;
   geofences?: RadarGeofence[];
+  cached?: boolean; // Android only
 }
 
 export interface RadarGeocodeCallback {
@@ -130,6 +194,17 @@ export interface RadarGeocodeCallback {
   addresses?: RadarAddress[];
 }
 
+export interface RadarAutocompleteCallback extends RadarGeocodeCallback {
+  timing?: RadarAutocompleteTiming;
+}
+
+export interface RadarAutocompleteTiming {
+  source: 'network' | 'cache' | 'prefix';
+  debounceMs: number;
+  networkMs: number;
+  totalMs: number;
+}
+
 export interface RadarValidateAddressCallback {
   status: string;
   address?: RadarAddress;
@@ -148,7 +223,7 @@ export interface RadarRouteCallback {
 
 export interface RadarLogConversionCallback {
   status: string;
-  event: RadarEvent;
+  event?: RadarEvent;
 }
 
 export interface RadarIndoorScanCallback {
@@ -156,9 +231,172 @@ export interface RadarIndoorScanCallback {
   location: Location;
 }
 
+export interface RadarMatrixOptions {
+  origins?: Location[];
+  destinations?: Location[];
+  mode: string;
+  units: string;
+  // Android only: split the request into tiles and resolve with row-major distances and durations
+  tiled?: boolean;
+  tileSize?: number;
+  concurrency?: number;
+  precision?: number;
+  cacheTtl?: number;
+}
+
 export interface RadarRouteMatrix {
   status: string;
   matrix?: object;
+  // tiled results, cell (i, j) is at index i * cols + j, null where no route was found
+  rows?: number;
+  cols?: number;
+  distances?: (number | null)[];
+  durations?: (number | null)[];
+  tiles?: number;
+  cachedTiles?: number;
+  durationMs?: number;
+}
+
+// base64 little-endian Float32 arrays, decode with decodePackedMatrix / decodePackedRoutes
+export interface RadarPackedMatrix {
+  status: string;
+  format: 'packed';
+  rows: number;
+  cols: number;
+  distances: string;
+  durations: string;
+  tiles?: number;
+  cachedTiles?: number;
+  durationMs?: number;
+}
+
+export interface RadarPackedRoutes {
+  status: string;
+  format: 'packed';
+  modes: string[];
+  distances: string;
+  durations: string;
+}
+
+export type RadarThermalStatus = 'none' | 'light' | 'moderate' | 'severe' | 'critical' | 'emergency' | 'shutdown';
+
+// battery is in percent, speed in m/s
+export interface RadarTrackingGovernorRule {
+  name?: string;
+  preset?: 'continuous' | 'responsive' | 'efficient';
+  options?: RadarTrackingOptions;
+  when?: {
+    minBattery?: number;
+    maxBattery?: number;
+    charging?: boolean;
+    minThermal?: RadarThermalStatus;
+    maxThermal?: RadarThermalStatus;
+    minSpeed?: number;
+    maxSpeed?: number;
+  };
+}
+
+// rules are evaluated in order and the first match wins; minDwell is in ms
+export interface RadarTrackingGovernorOptions {
+  rules?: RadarTrackingGovernorRule[];
+  batteryMargin?: number;
+  speedMargin?: number;
+  minDwell?: number;
+}
+
+export interface RadarTrackingGovernorInputs {
+  battery: number;
+  charging: boolean;
+  thermal: RadarThermalStatus;
+  speed: number;
+}
+
+export interface RadarTrackingGovernorEvent {
+  rule: string;
+  previousRule?: string;
+  trigger: 'start' | 'battery' | 'thermal' | 'location' | 'dwell';
+  inputs: RadarTrackingGovernorInputs;
+  options: RadarTrackingOptions;
+  timestamp: number;
+}
+
+export interface RadarTrackingGovernorState {
+  running: boolean;
+  rule?: string;
+  activeFor: number;
+  switches: number;
+  inputs: RadarTrackingGovernorInputs;
+  rules: string[];
+}
+
+export interface RadarInAppMessagePrefetchStats {
+  enabled: boolean;
+  messages: number;
+  images: number;
+  imagesReady: number;
+  hitRate: number;
+  loaded: number;
+  failed: number;
+  inFlight: number;
+  queued: number;
+  loadMs: RadarHistogram;
+}
+
+export interface RadarReceiverLoadTestOptions {
+  callback: 'location' | 'clientLocation' | 'events' | 'log' | 'error' | 'token' | 'inAppMessageDismissed';
+  rate?: number;
+  duration?: number;
+  // geofences on the user and events per callback
+  payloadSize?: number;
+}
+
+export interface RadarReceiverLoadTestResult {
+  callback: string;
+  rate: number;
+  sent: number;
+  delivered: number;
+  deliveries: number;
+  durationMs: number;
+  callbacksPerSecond: number;
+  latencyUs: RadarHistogram;
+  allocatedBytes?: number;
+  allocatedBytesPerSecond?: number;
+  allocatedBytesPerCallback?: number;
+}
+
+export interface RadarTraceReplayResult {
+  fixes: number;
+  sent: number;
+  succeeded: number;
+  failed: number;
+  stopped: boolean;
+  speed: number;
+  traceDurationMs: number;
+  durationMs: number;
+  fixesPerSecond: number;
+  latencyUs: RadarHistogram;
+}
+
+// Applies to clientLocation listeners. tolerance and minDistance are in meters, minInterval and maxInterval in ms
+export interface RadarTrajectoryOptions {
+  enabled?: boolean;
+  tolerance?: number;
+  minDistance?: number;
+  minInterval?: number;
+  maxInterval?: number;
+}
+
+export interface RadarPackedLocationHistory {
+  format: 'packed';
+  count: number;
+  total: number;
+  latitudes: string;
+  longitudes: string;
+  accuracies: string;
+  times: string;
+  sources: string;
+  stopped: string;
+  sourceNames: string[];
 }
 
 export interface Location {
@@ -521,3 +759,142 @@ export type RadarTripStatus =
   | 'expired'
   | 'completed'
   | 'canceled'
+
+export type RadarListenerDispatchPolicy =
+  | 'direct'
+  | 'queue'
+  | 'coalesce'
+  | 'batch'
+  | 'reliable'
+
+export interface RadarListenerDispatchOptions {
+  enabled?: boolean;
+  maxQueueSize?: number;
+  maxReliableQueueSize?: number; // 'reliable' payloads queued before an early flush, default 1000; they are never dropped
+  maxFlushesPerSecond?: number;
+  policies?: { [eventName: string]: RadarListenerDispatchPolicy };
+}
+
+export interface RadarListenerChannelStats {
+  received: number;
+  delivered: number;
+  dropped: number;
+  merged: number;
+}
+
+export interface RadarListenerDispatchStats {
+  enabled: boolean;
+  queued: number;
+  dropped: number;
+  merged: number;
+  channels: { [eventName: string]: RadarListenerChannelStats };
+}
+
+export interface RadarEventsDeliveryOptions {
+  batch: boolean;
+  flushInterval?: number;
+  maxEvents?: number;
+}
+
+export interface RadarConversionOutboxOptions {
+  enabled?: boolean;
+  maxEntries?: number;
+  batchSize?: number;
+  initialBackoff?: number;
+  maxBackoff?: number;
+}
+
+export interface RadarConversionOutboxStatus {
+  enabled: boolean;
+  pending: number;
+  delivered?: number;
+  failed?: number;
+  evicted?: number;
+  backoff?: number;
+}
+
+export interface RadarGeocodeCacheOptions {
+  enabled?: boolean;
+  maxEntries?: number;
+  geocodeTtl?: number;
+  reverseGeocodeTtl?: number;
+  ipGeocodeTtl?: number;
+  precision?: number;
+  disk?: boolean;
+}
+
+export interface RadarContextCacheOptions {
+  enabled?: boolean;
+  maxEntries?: number;
+  ttl?: number;
+  maxStale?: number;
+  precision?: number;
+}
+
+export interface RadarCacheStats {
+  enabled?: boolean;
+  hits: number;
+  staleHits?: number;
+  misses: number;
+  diskHits?: number;
+  diskEvictions?: number;
+  evictions: number;
+  size: number;
+  hitRate: number;
+  precision?: number;
+  refreshes?: number;
+}
+
+export interface RadarGeocodeBatchResult {
+  batchId: string;
+  indexes: number[];
+  input: string | Location;
+  status: string;
+  addresses?: RadarAddress[];
+}
+
+export interface RadarGeocodeBatchSummary {
+  batchId: string;
+  total: number;
+  unique: number;
+  succeeded: number;
+  failed: number;
+  cached: number;
+  durationMs: number;
+}
+
+// geofences indexed from searchGeofences results that contain the point
+export interface RadarLocalGeofencesCallback {
+  geofences: { _id: string, tag?: string, externalId?: string, description?: string }[];
+  indexed: number;
+  skipped: number; // geofences left out for missing geometry, such as polygons without a ring
+}
+
+// times in microseconds, payload sizes in JSON characters; percentiles are histogram bucket upper bounds
+export interface RadarHistogram {
+  count: number;
+  mean: number;
+  p50: number;
+  p90: number;
+  p99: number;
+  max: number;
+}
+
+export interface RadarMethodMetrics {
+  calls: number;
+  resolved: number;
+  rejected: number;
+  rejectRate: number;
+  rejects: { [status: string]: number };
+  invokeUs: RadarHistogram;
+  callbackUs: RadarHistogram;
+  serializationUs: RadarHistogram;
+  totalUs: RadarHistogram;
+  payloadBytes: RadarHistogram;
+}
+
+export interface RadarPluginMetrics {
+  enabled: boolean;
+  methods: { [method: string]: RadarMethodMetrics };
+  receivers: { [channel: string]: { handlingUs: RadarHistogram, payloadBytes: RadarHistogram } };
+}
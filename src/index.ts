@@ -7,4 +7,6 @@ const Radar = registerPlugin<RadarPlugin>('Radar', {
 });
 
 export * from './definitions';
+export * from './userDelta';
+export * from './packed';
 export { Radar };
\ No newline at end of file
@@ -0,0 +1,90 @@
+import type { RadarPackedLocationHistory, RadarPackedMatrix, RadarPackedRoutes } from './definitions';
+
+// Decodes a base64 little-endian Float32 array sent with format: 'packed'. Missing values are NaN.
+export const decodeFloat32 = (base64: string): Float32Array => {
+  const bytes = decodeUint8(base64);
+  const view = new DataView(bytes.buffer);
+  const values = new Float32Array(bytes.length / 4);
+  for (let i = 0; i < values.length; i++) {
+    values[i] = view.getFloat32(i * 4, true);
+  }
+  return values;
+};
+
+export const decodeFloat64 = (base64: string): Float64Array => {
+  const bytes = decodeUint8(base64);
+  const view = new DataView(bytes.buffer);
+  const values = new Float64Array(bytes.length / 8);
+  for (let i = 0; i < values.length; i++) {
+    values[i] = view.getFloat64(i * 8, true);
+  }
+  return values;
+};
+
+export const decodeUint8 = (base64: string): Uint8Array => {
+  const binary = atob(base64);
+  const bytes = new Uint8Array(binary.length);
+  for (let i = 0; i < binary.length; i++) {
+    bytes[i] = binary.charCodeAt(i);
+  }
+  return bytes;
+};
+
+export interface RadarDecodedMatrix {
+  rows: number;
+  cols: number;
+  distances: Float32Array;
+  durations: Float32Array;
+  // distance and duration from origin i to destination j
+  distance(i: number, j: number): number;
+  duration(i: number, j: number): number;
+}
+
+export const decodePackedMatrix = (result: RadarPackedMatrix): RadarDecodedMatrix => {
+  const { rows, cols } = result;
+  const distances = decodeFloat32(result.distances);
+  const durations = decodeFloat32(result.durations);
+  return {
+    rows,
+    cols,
+    distances,
+    durations,
+    distance: (i, j) => distances[i * cols + j],
+    duration: (i, j) => durations[i * cols + j],
+  };
+};
+
+export const decodePackedRoutes = (result: RadarPackedRoutes): { [mode: string]: { distance: number, duration: number } } => {
+  const distances = decodeFloat32(result.distances);
+  const durations = decodeFloat32(result.durations);
+  const routes: { [mode: string]: { distance: number, duration: number } } = {};
+  result.modes.forEach((mode, i) => {
+    routes[mode] = { distance: distances[i], duration: durations[i] };
+  });
+  return routes;
+};
+
+export interface RadarDecodedLocationHistory {
+  count: number;
+  total: number;
+  latitudes: Float64Array;
+  longitudes: Float64Array;
+  accuracies: Float32Array;
+  times: Float64Array;
+  stopped: Uint8Array;
+  // index into sourceNames for each fix
+  sources: Uint8Array;
+  sourceNames: string[];
+}
+
+export const decodeLocationHistory = (result: RadarPackedLocationHistory): RadarDecodedLocationHistory => ({
+  count: result.count,
+  total: result.total,
+  latitudes: decodeFloat64(result.latitudes),
+  longitudes: decodeFloat64(result.longitudes),
+  accuracies: decodeFloat32(result.accuracies),
+  times: decodeFloat64(result.times),
+  stopped: decodeUint8(result.stopped),
+  sources: decodeUint8(result.sources),
+  sourceNames: result.sourceNames,
+});
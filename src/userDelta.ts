@@ -0,0 +1,59 @@
+import type { RadarUser } from './definitions';
+
+export interface RadarUserDeltaResult {
+  user?: RadarUser;
+  userDelta?: object;
+  userChannel?: string;
+  userSeq?: number;
+}
+
+const mergePatch = (target: any, patch: any): any => {
+  if (patch === null || typeof patch !== 'object' || Array.isArray(patch)) {
+    return patch;
+  }
+  const result = target !== null && typeof target === 'object' && !Array.isArray(target) ? { ...target } : {};
+  Object.keys(patch).forEach((key) => {
+    if (patch[key] === null) {
+      delete result[key];
+    } else {
+      result[key] = mergePatch(result[key], patch[key]);
+    }
+  });
+  return result;
+};
+
+// Rebuilds the user from `location`/`events` payloads sent with setUserDeltaOptions({ enabled: true }).
+// Each channel has its own sequence, so one decoder can be shared by both listeners. As in RFC 7386,
+// a null in userDelta deletes the key, so fields sent as null are absent from the rebuilt user.
+// When a message is missed, decode() returns undefined and needsSnapshot is set until the next
+// full snapshot arrives; call Radar.requestUserSnapshot() to get one sooner.
+export class RadarUserDeltaDecoder {
+  private channels: { [channel: string]: { user?: RadarUser; seq?: number } } = {};
+  needsSnapshot = false;
+
+  decode(result: RadarUserDeltaResult): RadarUser | undefined {
+    if (result.userSeq === undefined) {
+      return result.user;
+    }
+    const channelName = result.userChannel ?? '';
+    const channel = this.channels[channelName] ?? (this.channels[channelName] = {});
+    if (result.user) {
+      channel.user = result.user;
+      channel.seq = result.userSeq;
+      this.needsSnapshot = Object.keys(this.channels).some((key) => this.channels[key].user === undefined);
+      return channel.user;
+    }
+    if (result.userDelta === undefined) {
+      return undefined;
+    }
+    if (!channel.user || channel.seq === undefined || result.userSeq !== channel.seq + 1) {
+      channel.user = undefined;
+      channel.seq = undefined;
+      this.needsSnapshot = true;
+      return undefined;
+    }
+    channel.user = mergePatch(channel.user, result.userDelta);
+    channel.seq = result.userSeq;
+    return channel.user;
+  }
+}
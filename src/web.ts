@@ -282,6 +282,10 @@ export class RadarPluginWeb extends WebPlugin implements RadarPlugin {
     });
   }
 
+  cancelAutocomplete(): void {
+    // not implemented
+  }
+
   async validateAddress(options: { address: RadarAddress; }): Promise<RadarValidateAddressCallback> {
     return new Promise((resolve, reject) => {
       Radar.validateAddress(options, (err, { status, address, verificationStatus }) => {
@@ -335,6 +339,14 @@ export class RadarPluginWeb extends WebPlugin implements RadarPlugin {
     });
   }
 
+  geocodeBatch(): Promise<object> {
+    // not implemented
+  }
+
+  reverseGeocodeBatch(): Promise<object> {
+    // not implemented
+  }
+
   async ipGeocode(): Promise<RadarIPGeocodeCallback> {
     return new Promise((resolve, reject) => {
       Radar.ipGeocode((err, { status, address }) => {
@@ -411,6 +423,166 @@ export class RadarPluginWeb extends WebPlugin implements RadarPlugin {
     // not implemented
   }
 
+  setListenerDispatchOptions(): void {
+    // not implemented
+  }
+
+  getListenerDispatchStats(): Promise<object> {
+    // not implemented
+  }
+
+  setEventsDeliveryOptions(): void {
+    // not implemented
+  }
+
+  setUserDeltaOptions(): void {
+    // not implemented
+  }
+
+  requestUserSnapshot(): void {
+    // not implemented
+  }
+
+  setConversionOutboxOptions(): void {
+    // not implemented
+  }
+
+  getConversionOutboxStatus(): Promise<object> {
+    // not implemented
+  }
+
+  setGeocodeCacheOptions(): void {
+    // not implemented
+  }
+
+  getGeocodeCacheStats(): Promise<object> {
+    // not implemented
+  }
+
+  clearGeocodeCache(): void {
+    // not implemented
+  }
+
+  setContextCacheOptions(): void {
+    // not implemented
+  }
+
+  getContextCacheStats(): Promise<object> {
+    // not implemented
+  }
+
+  clearContextCache(): void {
+    // not implemented
+  }
+
+  setSearchCacheOptions(): void {
+    // not implemented
+  }
+
+  getSearchCacheStats(): Promise<object> {
+    // not implemented
+  }
+
+  clearSearchCache(): void {
+    // not implemented
+  }
+
+  setGeofenceIndexOptions(): void {
+    // not implemented
+  }
+
+  queryLocalGeofences(): Promise<object> {
+    // not implemented
+  }
+
+  clearLocalGeofences(): void {
+    // not implemented
+  }
+
+  setPluginMetricsOptions(): void {
+    // not implemented
+  }
+
+  getPluginMetrics(): Promise<object> {
+    // not implemented
+  }
+
+  resetPluginMetrics(): void {
+    // not implemented
+  }
+
+  setTracingEnabled(): void {
+    // not implemented
+  }
+
+  setSerializationOptions(): void {
+    // not implemented
+  }
+
+  setSingleFlightOptions(): void {
+    // not implemented
+  }
+
+  getSingleFlightStats(): Promise<object> {
+    // not implemented
+  }
+
+  setLocationHistoryOptions(): void {
+    // not implemented
+  }
+
+  getLocationHistory(): Promise<object> {
+    // not implemented
+  }
+
+  clearLocationHistory(): void {
+    // not implemented
+  }
+
+  setTrajectoryOptions(): void {
+    // not implemented
+  }
+
+  getTrajectoryStats(): Promise<object> {
+    // not implemented
+  }
+
+  runReceiverLoadTest(): Promise<object> {
+    // not implemented
+  }
+
+  setImageCacheOptions(): void {
+    // not implemented
+  }
+
+  getImageCacheStats(): Promise<object> {
+    // not implemented
+  }
+
+  clearImageCache(): void {
+    // not implemented
+  }
+
+  setInAppMessagePrefetchOptions(): void {
+    // not implemented
+  }
+
+  getInAppMessagePrefetchStats(): Promise<object> {
+    // not implemented
+  }
+
+  startTrackingGovernor(): void {
+    // not implemented
+  }
+
+  stopTrackingGovernor(): void {
+    // not implemented
+  }
+
+  getTrackingGovernorState(): Promise<object> {
+    // not implemented
+  }
+
 }
 
 const radarPluginWeb = new RadarPluginWeb();